@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Measures the time until an instance answers its health check with 200 (that is, until it is UP)
+# and its resident memory at that point, over several cold starts.
+#
+#   mvn -B -DskipTests package
+#   scripts/measure-startup.sh                       # default profile, 5 runs
+#   PROFILE=production RUNS=10 scripts/measure-startup.sh
+#
+# Environment:
+#   JAR        application jar, default target/library-service-0.0.1-SNAPSHOT.jar
+#   PROFILE    Spring profiles to activate, default none
+#   RUNS       number of cold starts, default 5
+#   PORT       HTTP port of the instance, default 18080
+#   JAVA_OPTS  extra JVM options, e.g. "-Xmx256m -XX:TieredStopAtLevel=1"
+#   APP_OPTS   extra application arguments, by default Eureka is disabled so that the registry does not
+#              skew the numbers; pass the downstream servers with e.g.
+#              "--book-service.ribbon.listOfServers=localhost:8081 --user-service.ribbon.listOfServers=localhost:8082"
+set -euo pipefail
+
+JAR=${JAR:-target/library-service-0.0.1-SNAPSHOT.jar}
+PROFILE=${PROFILE:-}
+RUNS=${RUNS:-5}
+PORT=${PORT:-18080}
+JAVA_OPTS=${JAVA_OPTS:-}
+APP_OPTS=${APP_OPTS:---eureka.client.enabled=false --ribbon.eureka.enabled=false}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR not found, build it first with: mvn -B -DskipTests package" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_kb() {
+    if [ -r "/proc/$1/status" ]; then
+        awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+    else
+        ps -o rss= -p "$1" | tr -d ' '
+    fi
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+startups=()
+footprints=()
+for run in $(seq 1 "$RUNS"); do
+    log=$(mktemp)
+    start=$(now_ms)
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" --server.port="$PORT" ${PROFILE:+--spring.profiles.active=$PROFILE} $APP_OPTS \
+        > "$log" 2>&1 &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/api/")" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null || [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_SECONDS * 1000 )) ]; then
+            echo "Run $run: the instance did not come UP, its output is in $log" >&2
+            kill "$pid" 2>/dev/null || true
+            exit 1
+        fi
+        sleep 0.05
+    done
+    up=$(( $(now_ms) - start ))
+    rss=$(( $(rss_kb "$pid") / 1024 ))
+    started=$(grep -o 'Started LibraryServiceApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]* ' || true)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo "Run $run: UP after ${up} ms (context started in ${started:-? }s), RSS ${rss} MB"
+    startups+=("$up")
+    footprints+=("$rss")
+done
+
+echo "Profile ${PROFILE:-default}, $RUNS runs: median UP after $(printf '%s\n' "${startups[@]}" | median) ms," \
+    "median RSS $(printf '%s\n' "${footprints[@]}" | median) MB"
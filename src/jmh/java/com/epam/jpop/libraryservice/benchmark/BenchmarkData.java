@@ -0,0 +1,65 @@
+package com.epam.jpop.libraryservice.benchmark;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.User;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/*Representative payloads shaped like what book-service and user-service return*/
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Book book(long id) {
+        Author author = new Author();
+        author.setCode("AUT-" + (id % 50));
+        author.setName("Author " + (id % 50));
+        author.setAddress("221B Baker Street, London");
+        author.setPhoneNumber("+44 20 7224 3688");
+
+        Category category = new Category();
+        category.setCode("CAT-" + (id % 12));
+        category.setName("Category " + (id % 12));
+        category.setDesc("Books filed under category " + (id % 12));
+
+        Publisher publisher = new Publisher();
+        publisher.setCode("PUB-" + (id % 8));
+        publisher.setName("Publisher " + (id % 8));
+        publisher.setDesc("Publishing house number " + (id % 8));
+
+        return Book.builder()
+                .id(id)
+                .title("The collected works, volume " + id)
+                .author(author)
+                .category(category)
+                .isbn(9780000000000L + id)
+                .publisher(publisher)
+                .publishedDate(Date.valueOf("2019-10-01"))
+                .price(10.0 + id % 90)
+                .build();
+    }
+
+    static List<Book> catalog(int size) {
+        List<Book> books = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            books.add(book(i));
+        }
+        return books;
+    }
+
+    static User user(long id) {
+        return User.builder()
+                .id(id)
+                .name("Reader " + id)
+                .role("MEMBER")
+                .email("reader" + id + "@library.example")
+                .phoneNumber("+1 555 0100")
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.epam.jpop.libraryservice.benchmark;
+
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Feign;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*Per-request overhead of the clients LibraryController uses to reach book-service,
+ * measured against an in-process stub so that network latency does not drown it.
+ * The simple variants use the JDK HttpURLConnection transport the service had before connection pooling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownstreamClientBenchmark {
+
+    private StubServer bookService;
+    private CloseableHttpClient httpClient;
+    private RestTemplate pooledRestTemplate;
+    private RestTemplate simpleRestTemplate;
+    private BookClient bookClient;
+    private String bookUri;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        bookService = StubServer.start()
+                .respond("GET", "/api/books/1", 200, objectMapper.writeValueAsString(BenchmarkData.book(1)));
+        bookUri = "http://" + bookService.getAddress() + "/api/books/1";
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(200);
+        connectionManager.setDefaultMaxPerRoute(200);
+        httpClient = HttpClientBuilder.create().setConnectionManager(connectionManager).build();
+        pooledRestTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        simpleRestTemplate = new RestTemplate();
+
+        ObjectFactory<HttpMessageConverters> messageConverters =
+                () -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper));
+        bookClient = Feign.builder()
+                .client(new ApacheHttpClient(httpClient))
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(messageConverters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters)))
+                .target(BookClient.class, "http://" + bookService.getAddress());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        bookService.close();
+    }
+
+    @Benchmark
+    public Object pooledRestTemplateUntyped() {
+        return pooledRestTemplate.getForObject(bookUri, Object.class);
+    }
+
+    @Benchmark
+    public Book pooledRestTemplateTyped() {
+        return pooledRestTemplate.getForObject(bookUri, Book.class);
+    }
+
+    @Benchmark
+    public Object simpleRestTemplateUntyped() {
+        return simpleRestTemplate.getForObject(bookUri, Object.class);
+    }
+
+    @Benchmark
+    public Book pooledFeignTyped() {
+        return bookClient.getBook(1L);
+    }
+}
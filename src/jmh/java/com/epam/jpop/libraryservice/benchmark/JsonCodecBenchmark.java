@@ -0,0 +1,137 @@
+package com.epam.jpop.libraryservice.benchmark;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.json.DomainJsonModule;
+import com.epam.jpop.libraryservice.json.JsonBufferPool;
+import com.epam.jpop.libraryservice.json.JsonCodec;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*Cost of the JSON handling done by LibraryController around each downstream call.
+ * The untyped variants follow the v1 handlers, which bind the downstream body to Object and write it back,
+ * the typed variants follow the v2 handlers, which bind to Book and User. The codec variants bind the same
+ * types with the hand-written serializers of DomainJsonModule and encode into the pooled buffers of JsonCodec,
+ * as the MVC converter and the Feign encoder do; run with -prof gc for the allocation rate of each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"1", "100"})
+    private int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper domainMapper;
+    private JsonCodec codec;
+    private JavaType bookListType;
+    private byte[] bookJson;
+    private byte[] userJson;
+    private byte[] catalogJson;
+    private Book book;
+
+    @Setup
+    public void setUp() throws IOException {
+        // same defaults as the mapper Spring Boot configures for the MVC message converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        domainMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new DomainJsonModule()).build();
+        codec = new JsonCodec(domainMapper, new JsonBufferPool(4, 256 * 1024, 8 * 1024));
+        bookListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Book.class);
+        book = BenchmarkData.book(1);
+        bookJson = objectMapper.writeValueAsBytes(book);
+        userJson = objectMapper.writeValueAsBytes(BenchmarkData.user(1));
+        catalogJson = objectMapper.writeValueAsBytes(BenchmarkData.catalog(catalogSize));
+    }
+
+    @Benchmark
+    public Object readBookUntyped() throws IOException {
+        return objectMapper.readValue(bookJson, Object.class);
+    }
+
+    @Benchmark
+    public Book readBookTyped() throws IOException {
+        return objectMapper.readValue(bookJson, Book.class);
+    }
+
+    @Benchmark
+    public byte[] writeBook() throws IOException {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public byte[] relayBookUntyped() throws IOException {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(bookJson, Object.class));
+    }
+
+    @Benchmark
+    public byte[] relayBookTyped() throws IOException {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(bookJson, Book.class));
+    }
+
+    @Benchmark
+    public byte[] relayUserUntyped() throws IOException {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(userJson, Object.class));
+    }
+
+    @Benchmark
+    public byte[] relayUserTyped() throws IOException {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(userJson, User.class));
+    }
+
+    @Benchmark
+    public byte[] relayCatalogUntyped() throws IOException {
+        return objectMapper.writeValueAsBytes(objectMapper.readValue(catalogJson, Object.class));
+    }
+
+    @Benchmark
+    public byte[] relayCatalogTyped() throws IOException {
+        List<Book> books = objectMapper.readValue(catalogJson, bookListType);
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public Book readBookCodec() throws IOException {
+        return domainMapper.readValue(bookJson, Book.class);
+    }
+
+    @Benchmark
+    public byte[] writeBookCodec() throws IOException {
+        return codec.encode(book);
+    }
+
+    @Benchmark
+    public byte[] relayBookCodec() throws IOException {
+        return codec.encode(domainMapper.readValue(bookJson, Book.class));
+    }
+
+    @Benchmark
+    public byte[] relayUserCodec() throws IOException {
+        return codec.encode(domainMapper.readValue(userJson, User.class));
+    }
+
+    @Benchmark
+    public byte[] relayCatalogCodec() throws IOException {
+        List<Book> books = domainMapper.readValue(catalogJson, bookListType);
+        return codec.encode(books);
+    }
+}
@@ -0,0 +1,107 @@
+package com.epam.jpop.libraryservice.benchmark;
+
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.threads.ThreadMode;
+import com.epam.jpop.libraryservice.threads.VirtualThreads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/*Benchmark of the two thread models: a burst of concurrent tasks, each blocking on a downstream call with
+ * realistic latency. The platform mode gets a pool the size of Tomcat's default worker pool, the virtual mode
+ * a thread per task; both share a connection pool large enough not to be the limit. This is not a load test
+ * of the service: Tomcat, Hystrix and the bulkheads of DownstreamCommands are not involved, so it only shows
+ * the ceiling the thread model puts on blocking calls. The virtual mode needs JDK 21 and fails its setup on
+ * older runtimes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 2000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private ThreadMode mode;
+
+    @Param({"50"})
+    private long downstreamLatencyMillis;
+
+    private StubServer bookService;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ExecutorService executor;
+    private String bookUri;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        bookService = StubServer.start()
+                .respond("GET", "/api/books/1", 200, objectMapper.writeValueAsString(BenchmarkData.book(1)))
+                .withLatency(downstreamLatencyMillis);
+        bookUri = "http://" + bookService.getAddress() + "/api/books/1";
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(CONCURRENT_REQUESTS);
+        connectionManager.setDefaultMaxPerRoute(CONCURRENT_REQUESTS);
+        httpClient = HttpClientBuilder.create().setConnectionManager(connectionManager).build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        executor = mode == ThreadMode.VIRTUAL
+                ? VirtualThreads.newThreadPerTaskExecutor("benchmark-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+        bookService.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public int concurrentRequests() throws Exception {
+        List<Future<Book>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(executor.submit(() -> restTemplate.getForObject(bookUri, Book.class)));
+        }
+        int completed = 0;
+        for (Future<Book> response : responses) {
+            if (response.get() != null) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+}
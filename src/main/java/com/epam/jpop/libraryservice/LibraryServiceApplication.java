@@ -1,22 +1,30 @@
 package com.epam.jpop.libraryservice;
 
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.metrics.MeteredRestTemplateInterceptor;
+import org.apache.http.client.HttpClient;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
 @EnableEurekaClient
-@EnableFeignClients
+@EnableFeignClients(clients = {BookClient.class, UserClient.class})
 public class LibraryServiceApplication {
 
     @Bean
     @LoadBalanced
-    public RestTemplate getRestTemplate() {
-        return new RestTemplate();
+    public RestTemplate getRestTemplate(HttpClient httpClient, MeteredRestTemplateInterceptor meteredInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        // registered before the load balancer interceptor is appended, so calls are tagged with the service name
+        restTemplate.getInterceptors().add(meteredInterceptor);
+        return restTemplate;
     }
 
     public static void main(String[] args) {
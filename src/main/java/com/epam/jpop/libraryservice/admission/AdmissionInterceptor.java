@@ -0,0 +1,172 @@
+package com.epam.jpop.libraryservice.admission;
+
+import com.epam.jpop.libraryservice.exception.OverloadedException;
+import com.epam.jpop.libraryservice.exception.RateLimitedException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*Admission control of the handlers of @AdmissionControlled controllers.
+ * A request first takes tokens from the bucket of its client, then a slot of the concurrency limit for its
+ * priority; failing either it is answered at once with 429 or 503 and a Retry-After, rather than waiting for
+ * a thread or a connection that would only make every other request slower. The slot is given back when the
+ * response is complete, after the asynchronous part of a streamed response, with the latency it took.
+ */
+@Component
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".ADMISSION";
+
+    private final AdmissionProperties properties;
+
+    private final ConcurrencyLimit limit;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Map<Priority, LongAdder> rateLimited = new EnumMap<>(Priority.class);
+    private final Map<Priority, LongAdder> shed = new EnumMap<>(Priority.class);
+
+    @Autowired
+    public AdmissionInterceptor(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limit = new ConcurrencyLimit(properties);
+        this.buckets = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        for (Priority priority : Priority.values()) {
+            rateLimited.put(priority, new LongAdder());
+            shed.put(priority, new LongAdder());
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws ExecutionException {
+        if (!properties.isEnabled() || request.getAttribute(ADMISSION_ATTRIBUTE) != null
+                || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        HandlerMethod method = (HandlerMethod) handler;
+        if (!AnnotatedElementUtils.hasAnnotation(method.getBeanType(), AdmissionControlled.class)) {
+            return true;
+        }
+        Priority priority = priority(request, method);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(client(request),
+                () -> new TokenBucket(properties.getRatePerSecond(), properties.getBurst(), now));
+        long wait = bucket.tryTake(priority == Priority.LISTING ? properties.getListingCost() : 1, now);
+        if (wait > 0) {
+            rateLimited.get(priority).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait))));
+            throw new RateLimitedException("Too many requests from this client, retry later");
+        }
+        if (!limit.tryAcquire(priority)) {
+            shed.get(priority).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            throw new OverloadedException("The library service is overloaded, retry later");
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(priority, now));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission == null || request.isAsyncStarted()) {
+            return;
+        }
+        request.removeAttribute(ADMISSION_ATTRIBUTE);
+        boolean dropped = ex != null || response.getStatus() >= 500;
+        limit.release(admission.priority, System.nanoTime() - admission.startNanos, dropped);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.admission.limit", limit, ConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight at the measured downstream latency")
+                .register(registry);
+        Gauge.builder("library.admission.inflight", limit, ConcurrencyLimit::getInFlight)
+                .register(registry);
+        for (Priority priority : Priority.values()) {
+            FunctionCounter.builder("library.admission.rejected", rateLimited.get(priority), LongAdder::sum)
+                    .tag("reason", "rate")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry);
+            FunctionCounter.builder("library.admission.rejected", shed.get(priority), LongAdder::sum)
+                    .tag("reason", "overload")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    private static Priority priority(HttpServletRequest request, HandlerMethod method) {
+        AdmissionPriority annotation = method.getMethodAnnotation(AdmissionPriority.class);
+        if (annotation != null) {
+            return annotation.value();
+        }
+        return HttpMethod.GET.matches(request.getMethod()) ? Priority.READ : Priority.WRITE;
+    }
+
+    /*Identity the bucket of a request is kept under, only what the client cannot choose for itself.
+     * That is the authenticated principal, or else the client address: the peer itself, unless the peer is one
+     * of the trusted proxies, which then name the client in the configured header. The header is read from the
+     * right, skipping the trusted proxies that appended to it, since anything further left came from the client.
+     */
+    private String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        String header = properties.getClientIpHeader();
+        if (StringUtils.hasText(header) && properties.getTrustedProxies().contains(address)) {
+            String[] forwarded = StringUtils.commaDelimitedListToStringArray(request.getHeader(header));
+            for (int i = forwarded.length - 1; i >= 0; i--) {
+                String hop = forwarded[i].trim();
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                address = hop;
+                if (!properties.getTrustedProxies().contains(hop)) {
+                    break;
+                }
+            }
+        }
+        return "address:" + address;
+    }
+
+    private static class Admission {
+
+        private final Priority priority;
+        private final long startNanos;
+
+        private Admission(Priority priority, long startNanos) {
+            this.priority = priority;
+            this.startNanos = startNanos;
+        }
+    }
+}
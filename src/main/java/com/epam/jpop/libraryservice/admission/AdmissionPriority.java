@@ -0,0 +1,16 @@
+package com.epam.jpop.libraryservice.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*Admission class of a handler, without it reads are READ and everything else is WRITE*/
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AdmissionPriority {
+
+    Priority value();
+}
@@ -0,0 +1,62 @@
+package com.epam.jpop.libraryservice.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "library.admission")
+public class AdmissionProperties {
+
+    /*Rate limit and shed the requests of the admission controlled endpoints*/
+    private boolean enabled = false;
+
+    /*Header in which the trusted proxies pass on the client address, such as X-Forwarded-For.
+     * Unauthenticated clients are told apart by their address, without this header that is the address of the
+     * peer, which behind a gateway or a NAT is one and the same for all of them.
+     */
+    private String clientIpHeader;
+
+    /*Addresses of the proxies whose client address header is believed, it is ignored from anyone else*/
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /*Tokens a client earns per second*/
+    private double ratePerSecond = 100;
+
+    /*Tokens a client can save up, and so the largest burst it can send at once*/
+    private int burst = 200;
+
+    /*Tokens taken by a listing, which costs the downstream services far more than a single read or write*/
+    private int listingCost = 5;
+
+    /*Clients whose buckets are kept, the ones idle the longest are forgotten first*/
+    private int maxClients = 100000;
+
+    /*A client idle for this long starts over with a full bucket*/
+    private Duration clientIdleTime = Duration.ofMinutes(5);
+
+    /*Requests in flight allowed before any latency has been measured*/
+    private int initialLimit = 20;
+
+    private int minLimit = 5;
+
+    private int maxLimit = 400;
+
+    /*Latency increase over the long-term average that is still tolerated before the limit is lowered*/
+    private double tolerance = 1.5;
+
+    /*Weight of every new estimate in the limit, lower values make it move more slowly*/
+    private double smoothing = 0.2;
+
+    /*Factor the limit is multiplied by when a request fails downstream or times out*/
+    private double backoffRatio = 0.9;
+
+    /*Share of the limit listings may use, they are the first to be turned away*/
+    private double listingShare = 0.5;
+
+    /*Share of the limit writes may use, single reads can always use the whole limit*/
+    private double writeShare = 0.8;
+}
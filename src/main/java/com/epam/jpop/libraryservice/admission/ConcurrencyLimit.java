@@ -0,0 +1,98 @@
+package com.epam.jpop.libraryservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Adaptive limit of the requests in flight, following the gradient of their latency.
+ * Every completed request compares its latency with the long-term average of its class: as long as it stays
+ * within the tolerance the limit grows by a small queue allowance, beyond it the limit shrinks in proportion,
+ * and a request failing downstream cuts it by the backoff ratio. Admission itself is a compare-and-set of the
+ * in-flight count against the share of the limit the request's class may use, so the lower classes are
+ * turned away first as the limit comes down.
+ */
+public class ConcurrencyLimit {
+
+    /*Number of samples the long-term latency average of a class spans*/
+    private static final int LONG_WINDOW = 500;
+
+    private final AdmissionProperties properties;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    /*Long-term latency average per class, guarded by this*/
+    private final double[] longRttNanos = new double[Priority.values().length];
+
+    public ConcurrencyLimit(AdmissionProperties properties) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+    }
+
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * share(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Priority priority, long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        update(priority, rttNanos, dropped, current);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(Priority priority, long rttNanos, boolean dropped, int inFlightAtRelease) {
+        double estimate = limit;
+        if (dropped) {
+            limit = clamp(estimate * properties.getBackoffRatio());
+            return;
+        }
+        int index = priority.ordinal();
+        double longRtt = longRttNanos[index];
+        if (longRtt == 0) {
+            longRttNanos[index] = rttNanos;
+            return;
+        }
+        longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+        if (longRtt / rttNanos > 2) {
+            // latency dropped for good, let the average catch up instead of growing the limit on stale numbers
+            longRtt *= 0.95;
+        }
+        longRttNanos[index] = longRtt;
+        if (inFlightAtRelease < estimate / 2) {
+            // far from the limit, the latency says nothing about how much more the service could take
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRtt / rttNanos));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        limit = clamp(estimate * (1 - properties.getSmoothing()) + next * properties.getSmoothing());
+    }
+
+    private double share(Priority priority) {
+        switch (priority) {
+            case LISTING:
+                return properties.getListingShare();
+            case WRITE:
+                return properties.getWriteShare();
+            default:
+                return 1.0;
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+    }
+}
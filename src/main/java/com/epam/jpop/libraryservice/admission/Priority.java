@@ -0,0 +1,8 @@
+package com.epam.jpop.libraryservice.admission;
+
+/*Admission classes of the requests, in the order they are shed when the service is overloaded*/
+public enum Priority {
+    LISTING,
+    WRITE,
+    READ
+}
@@ -0,0 +1,41 @@
+package com.epam.jpop.libraryservice.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*Lock-free token bucket.
+ * Rather than a token count and a refill time, it keeps the single time at which the bucket will be full
+ * again (the theoretical arrival time of the generic cell rate algorithm), so that taking tokens is one
+ * compare-and-set of a long. A request is admitted when the bucket stays within its capacity once the
+ * request's tokens are added to the debt it already carries.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+
+    /*Time at which all the tokens taken so far will have been earned back*/
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.capacityNanos = nanosPerToken * burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /*Nanoseconds to wait before the tokens are available, zero when they were taken*/
+    public long tryTake(int tokens, long nowNanos) {
+        long cost = nanosPerToken * tokens;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current - nowNanos, 0) + nowNanos + cost;
+            long debt = next - nowNanos;
+            if (debt > capacityNanos) {
+                return debt - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
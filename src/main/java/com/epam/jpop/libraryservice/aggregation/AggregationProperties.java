@@ -0,0 +1,14 @@
+package com.epam.jpop.libraryservice.aggregation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.aggregation")
+public class AggregationProperties {
+
+    /*Time an aggregated response waits for its parts, what has not arrived by then is reported as missing*/
+    private Duration deadline = Duration.ofSeconds(2);
+}
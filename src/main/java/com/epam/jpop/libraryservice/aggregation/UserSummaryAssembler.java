@@ -0,0 +1,97 @@
+package com.epam.jpop.libraryservice.aggregation;
+
+import com.epam.jpop.libraryservice.batch.BatchLookup;
+import com.epam.jpop.libraryservice.domain.BatchError;
+import com.epam.jpop.libraryservice.domain.BatchResult;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.LoanDetails;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.UserSummary;
+import com.epam.jpop.libraryservice.loan.LoanService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*Builds a user together with their loans and the books lent, in one response.
+ * The user and every distinct book are fetched at the same time, and all of them share one deadline
+ * measured from the start of the request. A part that fails or misses the deadline is reported next to
+ * where it belongs instead of failing the response, only an unknown user is an error.
+ */
+@Component
+@EnableConfigurationProperties(AggregationProperties.class)
+public class UserSummaryAssembler {
+
+    private final LoanService loanService;
+    private final BatchLookup batchLookup;
+    private final AggregationProperties properties;
+
+    @Autowired
+    public UserSummaryAssembler(LoanService loanService, BatchLookup batchLookup, AggregationProperties properties) {
+        this.loanService = loanService;
+        this.batchLookup = batchLookup;
+        this.properties = properties;
+    }
+
+    public Mono<UserSummary> assemble(Long userId, Function<Long, Mono<User>> userLookup,
+                                      Function<Long, Mono<Book>> bookLookup) {
+        long deadline = System.nanoTime() + properties.getDeadline().toNanos();
+        List<Loan> loans = loanService.getLoans(userId);
+        List<Long> bookIds = loans.stream().map(Loan::getBookId).distinct().collect(Collectors.toList());
+
+        Mono<Part<User>> user = withDeadline(userLookup.apply(userId), deadline)
+                .map(found -> new Part<>(found, null))
+                .switchIfEmpty(Mono.fromSupplier(() -> new Part<>(null,
+                        new BatchError(HttpStatus.NOT_FOUND.value(), "No entity found with id " + userId))))
+                .onErrorResume(e -> !isNotFound(e), e -> Mono.just(new Part<>(null, BatchLookup.toError(e))));
+        Mono<BatchResult<Book>> books = batchLookup.fetchAll(bookIds,
+                bookId -> Mono.defer(() -> withDeadline(bookLookup.apply(bookId), deadline)));
+
+        return Mono.zip(user, books).map(parts -> summary(parts.getT1(), loans, parts.getT2()));
+    }
+
+    private static UserSummary summary(Part<User> user, List<Loan> loans, BatchResult<Book> books) {
+        List<LoanDetails> details = new ArrayList<>(loans.size());
+        boolean complete = user.error == null;
+        for (Loan loan : loans) {
+            BatchError error = books.getErrors().get(loan.getBookId());
+            complete &= error == null;
+            details.add(new LoanDetails(loan, books.getResults().get(loan.getBookId()), error));
+        }
+        return new UserSummary(user.value, user.error, details, complete);
+    }
+
+    /*Applies what is left of the shared deadline when the lookup is subscribed, not when it was created*/
+    private static <T> Mono<T> withDeadline(Mono<T> lookup, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return Mono.error(new TimeoutException("Deadline exceeded before the call was made"));
+        }
+        return lookup.timeout(Duration.ofNanos(remaining));
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof WebClientResponseException
+                && ((WebClientResponseException) e).getStatusCode() == HttpStatus.NOT_FOUND;
+    }
+
+    private static class Part<T> {
+        private final T value;
+        private final BatchError error;
+
+        private Part(T value, BatchError error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RibbonClients(defaultConfiguration = BalancingRibbonConfiguration.class)
+public class BalancingConfig {
+}
@@ -0,0 +1,34 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.balancing")
+public class BalancingProperties {
+
+    /*Choose book-service and user-service instances by latency and load instead of round robin*/
+    private boolean enabled = true;
+
+    /*Time constant of the moving average of response times, a sample this old weighs 1/e of a new one*/
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /*Response time a failed call counts as, at the least; keep it in line with the read timeout of the clients*/
+    private Duration failurePenalty = Duration.ofSeconds(10);
+
+    /*Failed calls in a row, connection errors or 5xx responses, after which an instance is ejected*/
+    private int consecutiveFailures = 5;
+
+    /*How long an instance stays ejected, multiplied by the number of times in a row it was ejected*/
+    private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+    /*Ejections are ignored while they would take out more than this share of the instances of a service*/
+    private int maxEjectionPercent = 50;
+
+    /*How often the load balancer reads the instances of a service again, keep it in line with the
+     * eureka.client.registry-fetch-interval-seconds of the registry cache it reads from
+     */
+    private Duration registryRefreshInterval = Duration.ofSeconds(10);
+}
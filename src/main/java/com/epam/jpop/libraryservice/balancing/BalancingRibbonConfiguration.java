@@ -0,0 +1,48 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IPing;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.PollingServerListUpdater;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerList;
+import com.netflix.loadbalancer.ServerListFilter;
+import com.netflix.loadbalancer.ServerListUpdater;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.TimeUnit;
+
+/*Beans of the Ribbon client context of every downstream service.
+ * Deliberately not a @Configuration, so that component scanning does not also register its beans in the
+ * application context, where a single rule would end up shared by the load balancers of all services.
+ * The rule comes with a plain dynamic load balancer instead of Ribbon's zone aware one, which clones its
+ * rule for every zone through a no-arg constructor; the instances of a service are compared across zones.
+ */
+public class BalancingRibbonConfiguration {
+
+    private static final long INITIAL_REFRESH_DELAY = TimeUnit.SECONDS.toMillis(1);
+
+    @Bean
+    @ConditionalOnProperty(prefix = "library.balancing", name = "enabled", matchIfMissing = true)
+    public IRule latencyAwareRule(LatencyTracker tracker, BalancingProperties properties) {
+        return new LatencyAwareRule(tracker, properties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "library.balancing", name = "enabled", matchIfMissing = true)
+    public ILoadBalancer latencyAwareLoadBalancer(IClientConfig config, IRule rule, IPing ping,
+                                                  ServerList<Server> serverList,
+                                                  ServerListFilter<Server> serverListFilter,
+                                                  ServerListUpdater serverListUpdater) {
+        return new DynamicServerListLoadBalancer<>(config, rule, ping, serverList, serverListFilter,
+                serverListUpdater);
+    }
+
+    @Bean
+    public ServerListUpdater serverListUpdater(BalancingProperties properties) {
+        return new PollingServerListUpdater(INITIAL_REFRESH_DELAY, properties.getRegistryRefreshInterval().toMillis());
+    }
+}
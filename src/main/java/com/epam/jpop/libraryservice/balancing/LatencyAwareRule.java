@@ -0,0 +1,69 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*Power of two choices over the instances of a service.
+ * Two instances that are not ejected are drawn at random and the one with the lower cost, its moving
+ * average response time scaled by its outstanding requests, is chosen. Comparing only two keeps the choice
+ * constant time and stops every caller from piling onto the single best looking instance.
+ */
+public class LatencyAwareRule extends AbstractLoadBalancerRule {
+
+    private final LatencyTracker tracker;
+    private final BalancingProperties properties;
+
+    public LatencyAwareRule(LatencyTracker tracker, BalancingProperties properties) {
+        this.tracker = tracker;
+        this.properties = properties;
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer loadBalancer = getLoadBalancer();
+        if (loadBalancer == null) {
+            return null;
+        }
+        List<Server> candidates = available(loadBalancer.getReachableServers());
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Server a = candidates.get(first);
+        Server b = candidates.get(second);
+        return tracker.cost(a.getHostPort()) <= tracker.cost(b.getHostPort()) ? a : b;
+    }
+
+    private List<Server> available(List<Server> servers) {
+        List<Server> healthy = new ArrayList<>(servers.size());
+        for (Server server : servers) {
+            if (!tracker.isEjected(server.getHostPort())) {
+                healthy.add(server);
+            }
+        }
+        int ejected = servers.size() - healthy.size();
+        if (healthy.isEmpty() || ejected * 100 > servers.size() * properties.getMaxEjectionPercent()) {
+            // too many instances look unhealthy at once, the problem is more likely on this side or in the network
+            return servers;
+        }
+        return healthy;
+    }
+}
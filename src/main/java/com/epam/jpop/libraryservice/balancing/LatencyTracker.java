@@ -0,0 +1,158 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*Load and health of every downstream instance, as observed by the calls made to it.
+ * Each instance keeps its outstanding requests and a peak-sensitive moving average of its response times:
+ * a slower response replaces the average at once, faster ones only pull it down gradually, so an instance
+ * stalled by a GC pause is avoided from its first slow response. A failed call counts as a response at
+ * least as slow as the failure penalty, so an instance that fails fast does not look like the fastest one,
+ * and instances failing several calls in a row are ejected for a while. Calls are attributed by the host
+ * and port they reached, after load balancing.
+ */
+@Component
+@EnableConfigurationProperties(BalancingProperties.class)
+public class LatencyTracker implements MeterBinder {
+
+    private static Logger logger = LoggerFactory.getLogger(LatencyTracker.class);
+
+    /*Cost of an instance without a response time yet while it is busy, so that it gets one probe at a time*/
+    private static final double UNKNOWN_LATENCY_PENALTY = TimeUnit.SECONDS.toNanos(1000);
+
+    /*Upper bound of the multiplier applied to the base ejection time*/
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final BalancingProperties properties;
+
+    private final Map<String, Load> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder ejections = new LongAdder();
+
+    @Autowired
+    public LatencyTracker(BalancingProperties properties) {
+        this.properties = properties;
+    }
+
+    public static String instance(String host, int port) {
+        return host + ":" + port;
+    }
+
+    /*Marks the start of a call, the returned time has to be passed on to complete*/
+    public long begin(String instance) {
+        load(instance).outstanding.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void complete(String instance, long startNanos, boolean failed) {
+        Load load = load(instance);
+        load.outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        if (failed) {
+            load.penalize(properties.getFailurePenalty().toNanos(), now, properties.getDecayTime().toNanos());
+            onFailure(instance, load, now);
+        } else {
+            load.observe(now - startNanos, now, properties.getDecayTime().toNanos());
+        }
+    }
+
+    /*Expected cost of sending one more call to the instance, lower is better*/
+    public double cost(String instance) {
+        Load load = loads.get(instance);
+        return load == null ? 0 : load.cost(System.nanoTime(), properties.getDecayTime().toNanos());
+    }
+
+    public boolean isEjected(String instance) {
+        Load load = loads.get(instance);
+        return load != null && load.ejectedUntil - System.nanoTime() > 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.balancing.instances", loads, Map::size)
+                .description("Downstream instances the load balancer has seen calls to")
+                .register(registry);
+        FunctionCounter.builder("library.balancing.ejections", ejections, LongAdder::sum)
+                .description("Downstream instances ejected after failing several calls in a row")
+                .register(registry);
+    }
+
+    private void onFailure(String instance, Load load, long now) {
+        long ejectedFor;
+        synchronized (load) {
+            load.consecutiveFailures++;
+            if (load.consecutiveFailures < properties.getConsecutiveFailures() || load.ejectedUntil - now > 0) {
+                return;
+            }
+            load.consecutiveFailures = 0;
+            load.ejections = Math.min(load.ejections + 1, MAX_EJECTION_MULTIPLIER);
+            ejectedFor = properties.getBaseEjectionTime().toNanos() * load.ejections;
+            load.ejectedUntil = now + ejectedFor;
+        }
+        ejections.increment();
+        logger.warn("Ejecting downstream instance {} for {} ms after {} failed calls in a row", instance,
+                TimeUnit.NANOSECONDS.toMillis(ejectedFor), properties.getConsecutiveFailures());
+    }
+
+    private Load load(String instance) {
+        return loads.computeIfAbsent(instance, key -> new Load());
+    }
+
+    private static final class Load {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private volatile long ejectedUntil = System.nanoTime();
+
+        /*Guarded by this*/
+        private boolean sampled;
+        private double averageNanos;
+        private long lastSample;
+        private int consecutiveFailures;
+        private int ejections;
+
+        synchronized void observe(long elapsedNanos, long now, long decayNanos) {
+            sample(elapsedNanos, now, decayNanos);
+            consecutiveFailures = 0;
+            ejections = 0;
+        }
+
+        synchronized void penalize(long penaltyNanos, long now, long decayNanos) {
+            sample(Math.max(averageNanos, penaltyNanos), now, decayNanos);
+        }
+
+        private void sample(double elapsedNanos, long now, long decayNanos) {
+            if (!sampled || elapsedNanos > averageNanos) {
+                averageNanos = elapsedNanos;
+            } else {
+                double weight = Math.exp(-(double) (now - lastSample) / decayNanos);
+                averageNanos = averageNanos * weight + elapsedNanos * (1 - weight);
+            }
+            sampled = true;
+            lastSample = now;
+        }
+
+        synchronized double cost(long now, long decayNanos) {
+            int active = outstanding.get();
+            if (!sampled) {
+                return active == 0 ? 0 : UNKNOWN_LATENCY_PENALTY * active;
+            }
+            // an instance left alone decays towards zero, so a slow one is tried again once it has had time to recover
+            double average = averageNanos * Math.exp(-(double) (now - lastSample) / decayNanos);
+            return average * (active + 1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.execchain.ClientExecChain;
+
+import java.io.IOException;
+
+/*Reports every exchange of the shared HttpClient to the LatencyTracker.
+ * It wraps the innermost execution step, so each attempt is attributed to the instance it actually reached
+ * and timed until the response headers arrive, whether it was issued by the RestTemplate or by Feign.
+ */
+public class LatencyTrackingExec implements ClientExecChain {
+
+    private final ClientExecChain delegate;
+    private final LatencyTracker tracker;
+
+    public LatencyTrackingExec(ClientExecChain delegate, LatencyTracker tracker) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public CloseableHttpResponse execute(HttpRoute route, HttpRequestWrapper request, HttpClientContext context,
+                                         HttpExecutionAware execAware) throws IOException, HttpException {
+        HttpHost target = route.getTargetHost();
+        String instance = LatencyTracker.instance(target.getHostName(), target.getPort());
+        long start = tracker.begin(instance);
+        boolean failed = true;
+        try {
+            CloseableHttpResponse response = delegate.execute(route, request, context, execAware);
+            failed = response.getStatusLine().getStatusCode() >= 500;
+            return response;
+        } finally {
+            tracker.complete(instance, start, failed);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.BatchError;
+import com.epam.jpop.libraryservice.domain.BatchResult;
+import com.epam.jpop.libraryservice.exception.BatchTooLargeException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/*Fans a list of ids out to a lookup with bounded concurrency.
+ * Duplicate ids are fetched once, and a failed lookup is reported as an error for its id
+ * instead of failing the whole batch.
+ */
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchLookup {
+
+    private final BatchProperties properties;
+
+    @Autowired
+    public BatchLookup(BatchProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> Mono<BatchResult<T>> fetchAll(Collection<Long> ids, Function<Long, Mono<T>> lookup) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > properties.getMaxIds()) {
+            throw new BatchTooLargeException("A batch can contain at most " + properties.getMaxIds() + " ids");
+        }
+        return Flux.fromIterable(uniqueIds)
+                .flatMap(id -> lookup.apply(id)
+                        .map(value -> new Entry<>(id, value, null))
+                        .switchIfEmpty(Mono.fromSupplier(() -> new Entry<>(id, null,
+                                new BatchError(HttpStatus.NOT_FOUND.value(), "No entity found with id " + id))))
+                        .onErrorResume(e -> Mono.just(new Entry<>(id, null, toError(e)))),
+                        properties.getMaxConcurrency())
+                .collectList()
+                .map(entries -> toResult(uniqueIds, entries));
+    }
+
+    private static <T> BatchResult<T> toResult(Set<Long> uniqueIds, List<Entry<T>> entries) {
+        Map<Long, Entry<T>> entriesById = new HashMap<>();
+        for (Entry<T> entry : entries) {
+            entriesById.put(entry.id, entry);
+        }
+        BatchResult<T> result = new BatchResult<>();
+        for (Long id : uniqueIds) {
+            Entry<T> entry = entriesById.get(id);
+            if (entry.error == null) {
+                result.getResults().put(id, entry.value);
+            } else {
+                result.getErrors().put(id, entry.error);
+            }
+        }
+        return result;
+    }
+
+    public static BatchError toError(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            WebClientResponseException responseException = (WebClientResponseException) e;
+            return new BatchError(responseException.getRawStatusCode(), responseException.getStatusText());
+        }
+        if (e instanceof TimeoutException) {
+            return new BatchError(HttpStatus.GATEWAY_TIMEOUT.value(), "Timed out waiting for the downstream service");
+        }
+        return new BatchError(HttpStatus.BAD_GATEWAY.value(), e.getMessage());
+    }
+
+    private static class Entry<T> {
+        private final Long id;
+        private final T value;
+        private final BatchError error;
+
+        private Entry(Long id, T value, BatchError error) {
+            this.id = id;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.epam.jpop.libraryservice.batch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.batch")
+public class BatchProperties {
+
+    /*Largest number of distinct ids accepted in a single batch request*/
+    private int maxIds = 500;
+
+    /*Number of downstream lookups a single batch request keeps in flight at once*/
+    private int maxConcurrency = 16;
+
+    /*Number of downstream writes a single bulk import keeps in flight at once*/
+    private int maxImportConcurrency = 32;
+}
@@ -0,0 +1,80 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.exception.LibraryException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+
+/*Writes a listing out as NDJSON or CSV one record at a time.
+ * A downstream listing is bound element by element while it arrives, so neither the downstream
+ * response nor the export is ever held in memory as a whole.
+ */
+@Component
+public class BulkExporter {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BulkExporter(RestTemplate restTemplate, ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /*Exports records that are already available locally, e.g. a lazily materialized catalog snapshot*/
+    public StreamingResponseBody export(Iterable<?> records, RecordFormat format, Object prototype) {
+        return outputStream -> {
+            RecordWriter writer = new RecordWriter(outputStream, format, objectMapper, prototype);
+            int count = 0;
+            for (Object record : records) {
+                writer.write(record);
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        };
+    }
+
+    public StreamingResponseBody export(String uri, Class<?> type, RecordFormat format, Object prototype) {
+        return outputStream -> restTemplate.execute(URI.create(uri), HttpMethod.GET,
+                request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                response -> {
+                    copy(uri, response.getBody(), type, new RecordWriter(outputStream, format, objectMapper, prototype));
+                    return null;
+                });
+    }
+
+    private void copy(String uri, InputStream in, Class<?> type, RecordWriter writer) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new LibraryException("Expected a JSON array from " + uri);
+            }
+            int count = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new LibraryException("Truncated response received from " + uri);
+                }
+                writer.write(parser.readValueAs(type));
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        }
+    }
+}
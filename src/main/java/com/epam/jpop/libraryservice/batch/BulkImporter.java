@@ -0,0 +1,82 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.BatchError;
+import com.epam.jpop.libraryservice.domain.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*Imports an upload of records through a downstream write per record.
+ * The upload is parsed lazily as the writes request more records, so at most max-import-concurrency
+ * writes are in flight and only the records they carry are held in memory. Results are written back in
+ * upload order as NDJSON, one line per record, while the import is still running.
+ */
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BulkImporter {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final BatchProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BulkImporter(BatchProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> void importRecords(InputStream in, RecordFormat format, Class<T> type,
+                                  Function<T, Mono<T>> write, Function<T, Long> id, OutputStream out)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecordReader<T> records = new RecordReader<>(reader, format, type, objectMapper);
+        int concurrency = properties.getMaxImportConcurrency();
+        // closing the stream cancels the import, so a client gone mid-upload stops the reads and writes too
+        try (Stream<ImportResult> stream = Flux.fromIterable(() -> records)
+                // reading the upload blocks, so it must never run on the threads completing the writes
+                .subscribeOn(Schedulers.elastic())
+                .flatMapSequential(record -> write(record, write, id), concurrency, 1)
+                .toStream(concurrency)) {
+            Iterator<ImportResult> results = stream.iterator();
+            RecordWriter writer = new RecordWriter(out, RecordFormat.NDJSON, objectMapper, null);
+            int count = 0;
+            while (results.hasNext()) {
+                writer.write(results.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    private static <T> Mono<ImportResult> write(RecordReader.Record<T> record, Function<T, Mono<T>> write,
+                                                Function<T, Long> id) {
+        if (record.error != null) {
+            return Mono.just(new ImportResult(record.line, HttpStatus.BAD_REQUEST.value(), null, record.error));
+        }
+        return write.apply(record.value)
+                .map(written -> new ImportResult(record.line, HttpStatus.CREATED.value(), id.apply(written), null))
+                .defaultIfEmpty(new ImportResult(record.line, HttpStatus.CREATED.value(), null, null))
+                .onErrorResume(e -> {
+                    BatchError error = BatchLookup.toError(e);
+                    return Mono.just(new ImportResult(record.line, error.getStatus(), null, error.getMessage()));
+                });
+    }
+}
@@ -0,0 +1,37 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.exception.UnsupportedFormatException;
+import org.springframework.http.MediaType;
+
+/*Line oriented formats accepted by the bulk import and produced by the bulk export*/
+public enum RecordFormat {
+
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    RecordFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static RecordFormat fromContentType(String contentType) {
+        if (contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.valueOf("text/csv"))) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+
+    public static RecordFormat fromName(String name) {
+        for (RecordFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new UnsupportedFormatException("Unsupported format, expected ndjson or csv: " + name);
+    }
+}
@@ -0,0 +1,142 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.exception.LibraryException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/*Reads an upload one line at a time and binds each line to a record.
+ * NDJSON lines are bound directly. CSV lines are bound by header name, where dotted names such as
+ * author.code address nested fields; quoted fields may contain commas and quotes but not line breaks.
+ * A line that cannot be bound is returned as a failed record, so one bad line does not abort the upload.
+ */
+class RecordReader<T> implements Iterator<RecordReader.Record<T>> {
+
+    private final BufferedReader reader;
+    private final RecordFormat format;
+    private final Class<T> type;
+    private final ObjectMapper objectMapper;
+
+    private String[] header;
+    private long lineNumber;
+    private Record<T> next;
+
+    RecordReader(BufferedReader reader, RecordFormat format, Class<T> type, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.type = type;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = read();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Record<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Record<T> record = next;
+        next = null;
+        return record;
+    }
+
+    private Record<T> read() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (format == RecordFormat.CSV && header == null) {
+                    header = split(line).toArray(new String[0]);
+                    continue;
+                }
+                try {
+                    return new Record<>(lineNumber, bind(line), null);
+                } catch (IOException | RuntimeException e) {
+                    return new Record<>(lineNumber, null, e.getMessage());
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private T bind(String line) throws IOException {
+        if (format == RecordFormat.NDJSON) {
+            return objectMapper.readValue(line, type);
+        }
+        List<String> fields = split(line);
+        if (fields.size() > header.length) {
+            throw new LibraryException("Expected at most " + header.length + " fields but found " + fields.size());
+        }
+        ObjectNode root = objectMapper.createObjectNode();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).isEmpty()) {
+                continue;
+            }
+            ObjectNode node = root;
+            String[] path = header[i].split("\\.");
+            for (int depth = 0; depth < path.length - 1; depth++) {
+                node = node.has(path[depth]) ? (ObjectNode) node.get(path[depth]) : node.putObject(path[depth]);
+            }
+            node.put(path[path.length - 1], fields.get(i));
+        }
+        return objectMapper.treeToValue(root, type);
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static class Record<T> {
+        final long line;
+        final T value;
+        final String error;
+
+        private Record(long line, T value, String error) {
+            this.line = line;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
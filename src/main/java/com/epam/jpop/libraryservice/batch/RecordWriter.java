@@ -0,0 +1,92 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*Writes records one line at a time, in the same formats the bulk import reads.
+ * CSV columns are the dotted field names of a prototype record with every nested object present.
+ */
+class RecordWriter {
+
+    private final Writer writer;
+    private final RecordFormat format;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
+    private final List<String> columns;
+
+    RecordWriter(OutputStream out, RecordFormat format, ObjectMapper objectMapper, Object prototype)
+            throws IOException {
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.objectWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.columns = new ArrayList<>();
+        if (format == RecordFormat.CSV) {
+            collectColumns("", objectMapper.valueToTree(prototype));
+            writeLine(columns);
+        }
+    }
+
+    void write(Object record) throws IOException {
+        if (format == RecordFormat.NDJSON) {
+            objectWriter.writeValue(writer, record);
+            writer.write('\n');
+            return;
+        }
+        JsonNode tree = objectMapper.valueToTree(record);
+        List<String> fields = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            JsonNode node = tree;
+            for (String name : column.split("\\.")) {
+                node = node == null ? null : node.get(name);
+            }
+            fields.add(node == null || node.isNull() ? "" : node.asText());
+        }
+        writeLine(fields);
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void collectColumns(String prefix, JsonNode node) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isObject()) {
+                collectColumns(prefix + field.getKey() + ".", field.getValue());
+            } else {
+                columns.add(prefix + field.getKey());
+            }
+        }
+    }
+
+    private void writeLine(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(fields.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,22 @@
+package com.epam.jpop.libraryservice.cache;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public ReadThroughCache<Long, Book> bookCache(CacheProperties properties) {
+        return new ReadThroughCache<>("books", properties);
+    }
+
+    @Bean
+    public ReadThroughCache<Long, User> userCache(CacheProperties properties) {
+        return new ReadThroughCache<>("users", properties);
+    }
+}
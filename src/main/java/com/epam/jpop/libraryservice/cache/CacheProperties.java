@@ -0,0 +1,20 @@
+package com.epam.jpop.libraryservice.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.cache")
+public class CacheProperties {
+
+    /*Maximum number of entries kept per cache before the least recently used ones are evicted*/
+    private long maximumSize = 10000;
+
+    /*How long an entry stays valid after it was loaded from the downstream service*/
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+    /*How long the last known value of an entry is kept to be served while the downstream service is unavailable*/
+    private Duration staleTtl = Duration.ofHours(1);
+}
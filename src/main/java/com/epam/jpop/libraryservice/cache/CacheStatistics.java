@@ -0,0 +1,30 @@
+package com.epam.jpop.libraryservice.cache;
+
+import com.epam.jpop.libraryservice.coalescing.CoalescingStatistics;
+import com.google.common.cache.CacheStats;
+import lombok.Data;
+
+@Data
+public class CacheStatistics {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long loadExceptionCount;
+    private double hitRate;
+    private long loadCount;
+    private long collapsedLoadCount;
+
+    public CacheStatistics(CacheStats stats, long size, CoalescingStatistics loads) {
+        this.size = size;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.evictionCount = stats.evictionCount();
+        // loads bypass the Guava loader, so their failures are counted by the single flight running them
+        this.loadExceptionCount = loads.getFailures();
+        this.hitRate = stats.hitRate();
+        this.loadCount = loads.getExecutions();
+        this.collapsedLoadCount = loads.getCollapsed();
+    }
+}
@@ -0,0 +1,146 @@
+package com.epam.jpop.libraryservice.cache;
+
+import com.epam.jpop.libraryservice.coalescing.SingleFlight;
+import com.epam.jpop.libraryservice.exception.DownstreamUnavailableException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*Bounded read-through cache in front of a downstream lookup.
+ * Concurrent misses on the same key share a single load, and the exception thrown by the
+ * loader is propagated unchanged so callers see the same errors as without the cache.
+ * When the downstream service is unavailable, the last known value of an expired entry is served instead.
+ */
+public class ReadThroughCache<K, V> implements MeterBinder {
+
+    private static Logger logger = LoggerFactory.getLogger(ReadThroughCache.class);
+
+    private final String name;
+    private final Cache<K, V> cache;
+    private final Cache<K, V> staleEntries;
+    private final SingleFlight<K, V> loads;
+
+    /*One token per key being loaded. Invalidating the key withdraws it, so that a load which started
+     * before the invalidation is not stored afterwards, while loads of other keys are still cached*/
+    private final ConcurrentMap<K, Object> loading = new ConcurrentHashMap<>();
+
+    public ReadThroughCache(String name, CacheProperties properties) {
+        this.name = name;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.staleEntries = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getStaleTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        this.loads = new SingleFlight<>(name);
+    }
+
+    public V get(K key, Callable<? extends V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return loads.execute(key, () -> {
+                Object token = startLoad(key);
+                try {
+                    return store(key, loader.call(), token);
+                } finally {
+                    loading.remove(key, token);
+                }
+            });
+        } catch (DownstreamUnavailableException e) {
+            V stale = staleEntries.getIfPresent(key);
+            if (stale == null) {
+                throw e;
+            }
+            logger.warn("Serving stale {} entry {}: {}", name, key, e.getMessage());
+            return stale;
+        }
+    }
+
+    public Mono<V> getAsync(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            V cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return loads.executeAsync(key, () -> Mono.defer(() -> {
+                Object token = startLoad(key);
+                return loader.get()
+                        .doOnNext(value -> store(key, value, token))
+                        .doFinally(signal -> loading.remove(key, token));
+            }));
+        });
+    }
+
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, value);
+        staleEntries.put(key, value);
+    }
+
+    public void invalidate(K key) {
+        loading.remove(key);
+        cache.invalidate(key);
+        staleEntries.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        loading.clear();
+        cache.invalidateAll();
+        staleEntries.invalidateAll();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        GuavaCacheMetrics.monitor(registry, cache, name);
+        loads.bindTo(registry);
+    }
+
+    public CacheStatistics statistics() {
+        return new CacheStatistics(cache.stats(), cache.size(), loads.statistics());
+    }
+
+    private Object startLoad(K key) {
+        Object token = new Object();
+        loading.put(key, token);
+        return token;
+    }
+
+    private V store(K key, V value, Object token) {
+        // a null result is passed through but never cached
+        if (value != null) {
+            // stored while holding the token, an invalidation withdraws it first and clears the entry afterwards
+            loading.computeIfPresent(key, (k, current) -> {
+                if (current != token) {
+                    return current;
+                }
+                put(key, value);
+                return null;
+            });
+        }
+        return value;
+    }
+}
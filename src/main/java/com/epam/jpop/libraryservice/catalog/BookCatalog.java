@@ -0,0 +1,304 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.BOOK_SERVICE;
+
+/*In-process replica of the book catalog.
+ * It is bootstrapped from the book service listing and synchronised again on a fixed delay, while the
+ * writes going through this service are applied to it immediately. The book service has no change feed,
+ * so a synchronisation diffs the full listing against the replica and only touches the books that changed.
+ * Reads return nothing when the replica is disabled or older than the staleness bound, so that callers
+ * fall back to the book service. Books are held in columnar form and materialized as they are read.
+ */
+@Component
+@EnableConfigurationProperties(CatalogProperties.class)
+public class BookCatalog implements MeterBinder {
+
+    private static Logger logger = LoggerFactory.getLogger(BookCatalog.class);
+
+    private static final long NEVER = -1;
+
+    private final BookClient bookClient;
+    private final DownstreamCommands commands;
+    private final CatalogProperties properties;
+
+    private final CompactBookStore books = new CompactBookStore();
+
+    private final BookIndex index = new BookIndex();
+
+    /*Time of the last local write per book, so that a synchronisation started earlier does not undo it*/
+    private final ConcurrentMap<Long, Long> localWrites = new ConcurrentHashMap<>();
+
+    /*Snapshot of the listing sorted by id, taken on the first read after a change*/
+    private volatile List<Book> listing;
+
+    private volatile long lastSync = NEVER;
+
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder syncFailures = new LongAdder();
+    private final LongAdder localReads = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    /*The client is injected lazily: building it needs the web configuration, which needs the meter registry,
+     * which binds this catalog, so an eager client would close a cycle between the beans
+     */
+    @Autowired
+    public BookCatalog(@Lazy BookClient bookClient, DownstreamCommands commands, CatalogProperties properties) {
+        this.bookClient = bookClient;
+        this.commands = commands;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-catalog-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::synchronize, 0, properties.getRefreshInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isFresh() {
+        long synced = lastSync;
+        return properties.isEnabled() && synced != NEVER
+                && System.nanoTime() - synced <= properties.getMaxStaleness().toNanos();
+    }
+
+    public Optional<Book> getBook(Long id) {
+        Book book = isFresh() && id != null ? books.get(id) : null;
+        // a book missing from a fresh replica may have been added through another instance, so ask the book service
+        return counted(Optional.ofNullable(book));
+    }
+
+    public Optional<List<Book>> getBooks() {
+        if (!isFresh()) {
+            return counted(Optional.empty());
+        }
+        return counted(Optional.of(listing()));
+    }
+
+    /*Books matching the query, sorted by id, looked up through the secondary indexes*/
+    public Optional<List<Book>> search(BookQuery query) {
+        if (!isFresh()) {
+            return counted(Optional.empty());
+        }
+        Set<Long> candidates = index.candidates(query);
+        List<Book> scanned = candidates == null ? listing() : lookup(candidates);
+        List<Book> matching = new ArrayList<>();
+        for (Book book : scanned) {
+            if (query.matches(book)) {
+                matching.add(book);
+            }
+        }
+        if (candidates != null) {
+            matching.sort(Comparator.comparing(Book::getId));
+        }
+        return counted(Optional.of(matching));
+    }
+
+    public synchronized void put(Book book) {
+        if (!properties.isEnabled() || book == null || book.getId() == null) {
+            return;
+        }
+        localWrites.put(book.getId(), System.nanoTime());
+        store(book);
+        listing = null;
+    }
+
+    /*Stores the book written to the given id, whatever id the body it was written with carried*/
+    public void put(Long id, Book book) {
+        if (book == null || id == null) {
+            return;
+        }
+        put(id.equals(book.getId()) ? book : Book.builder()
+                .id(id)
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .category(book.getCategory())
+                .isbn(book.getIsbn())
+                .publisher(book.getPublisher())
+                .publishedDate(book.getPublishedDate())
+                .price(book.getPrice())
+                .build());
+    }
+
+    public synchronized void remove(Long id) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        localWrites.put(id, System.nanoTime());
+        evict(id);
+        listing = null;
+    }
+
+    /*Fetches the full listing and applies the difference to the replica*/
+    public void synchronize() {
+        long started = System.nanoTime();
+        List<Book> remote;
+        try {
+            remote = commands.execute(BOOK_SERVICE, "getBooks", bookClient::getBooks);
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            logger.warn("Unable to synchronise the book catalog: {}", e.getMessage());
+            return;
+        }
+        int changed = apply(remote, started);
+        // writes from before this synchronisation are reflected in the listing it just applied
+        localWrites.values().removeIf(written -> written - started < 0);
+        lastSync = started;
+        syncs.increment();
+        logger.debug("Synchronised the book catalog, {} books changed", changed);
+    }
+
+    public CatalogStatistics statistics() {
+        long synced = lastSync;
+        long age = synced == NEVER ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - synced);
+        return new CatalogStatistics(properties.isEnabled(), isFresh(), books.size(), age, syncs.sum(),
+                syncFailures.sum(), localReads.sum(), fallbacks.sum());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.catalog.size", books, CompactBookStore::size)
+                .description("Books held by the in-process catalog replica")
+                .register(registry);
+        Gauge.builder("library.catalog.age", this, catalog -> catalog.statistics().getAgeMillis() / 1000.0)
+                .description("Seconds since the catalog replica was last synchronised")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("library.catalog.syncs", syncs, LongAdder::sum)
+                .tag("outcome", "success")
+                .register(registry);
+        FunctionCounter.builder("library.catalog.syncs", syncFailures, LongAdder::sum)
+                .tag("outcome", "failure")
+                .register(registry);
+        FunctionCounter.builder("library.catalog.reads", localReads, LongAdder::sum)
+                .tag("source", "local")
+                .register(registry);
+        FunctionCounter.builder("library.catalog.reads", fallbacks, LongAdder::sum)
+                .tag("source", "remote")
+                .register(registry);
+    }
+
+    /*Applies the difference between a listing fetched at the given time and the replica*/
+    private synchronized int apply(List<Book> remote, long started) {
+        Set<Long> seen = new HashSet<>(remote.size() * 2);
+        int changed = 0;
+        for (Book book : remote) {
+            if (book == null || book.getId() == null) {
+                continue;
+            }
+            seen.add(book.getId());
+            if (!writtenSince(book.getId(), started) && !books.contains(book)) {
+                store(book);
+                changed++;
+            }
+        }
+        for (long id : books.ids()) {
+            if (!seen.contains(id) && !writtenSince(id, started)) {
+                evict(id);
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            listing = null;
+        }
+        return changed;
+    }
+
+    /*Writers hold the catalog lock, so the replica and its indexes change in the same order*/
+    private void store(Book book) {
+        index.index(books.put(book), book);
+    }
+
+    private void evict(Long id) {
+        Book previous = books.remove(id);
+        if (previous != null) {
+            index.unindex(previous);
+        }
+    }
+
+    private List<Book> listing() {
+        List<Book> current = listing;
+        if (current == null) {
+            // taken under the writers' lock, so a snapshot can never outlive the change that invalidated it
+            synchronized (this) {
+                current = listing;
+                if (current == null) {
+                    current = books.snapshot();
+                    listing = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Book> lookup(Set<Long> ids) {
+        List<Book> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = books.get(id);
+            if (book != null) {
+                found.add(book);
+            }
+        }
+        return found;
+    }
+
+    private boolean writtenSince(Long id, long started) {
+        Long written = localWrites.get(id);
+        return written != null && written - started >= 0;
+    }
+
+    private <T> Optional<T> counted(Optional<T> result) {
+        if (properties.isEnabled()) {
+            (result.isPresent() ? localReads : fallbacks).increment();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,183 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Book;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*Secondary indexes over the books of the catalog replica.
+ * ISBNs map to book ids in a primitive map, and the few ISBNs shared by several books, such as copies listed
+ * separately by the book service, are kept aside with all of their ids. Author, category and publisher codes
+ * are kept in inverted indexes, and price and publication day in sorted maps for range queries. Every change
+ * replaces the entries of the previous version of the book, which the caller passes in, so the indexes are
+ * maintained incrementally.
+ */
+class BookIndex {
+
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongLongMap byIsbn = new LongLongMap(1024);
+    private final Map<Long, Set<Long>> bySharedIsbn = new HashMap<>();
+    private final Map<String, Set<Long>> byAuthor = new HashMap<>();
+    private final Map<String, Set<Long>> byCategory = new HashMap<>();
+    private final Map<String, Set<Long>> byPublisher = new HashMap<>();
+    private final NavigableMap<Double, Set<Long>> byPrice = new TreeMap<>();
+    private final NavigableMap<Long, Set<Long>> byPublishedDay = new TreeMap<>();
+
+    void index(Book previous, Book book) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                removeEntries(previous);
+            }
+            addEntries(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void unindex(Book previous) {
+        lock.writeLock().lock();
+        try {
+            removeEntries(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*Ids of the books that may match the query, taken from its most selective indexed criterion.
+     * Returns null when the query has no criteria, meaning every book is a candidate.
+     */
+    Set<Long> candidates(BookQuery query) {
+        lock.readLock().lock();
+        try {
+            if (query.getIsbn() != null) {
+                Set<Long> shared = bySharedIsbn.get(query.getIsbn());
+                if (shared != null) {
+                    return new HashSet<>(shared);
+                }
+                long id = byIsbn.get(query.getIsbn(), MISSING);
+                return id == MISSING ? Collections.emptySet() : Collections.singleton(id);
+            }
+            Set<Long> smallest = null;
+            smallest = smaller(smallest, query.getAuthor(), byAuthor);
+            smallest = smaller(smallest, query.getCategory(), byCategory);
+            smallest = smaller(smallest, query.getPublisher(), byPublisher);
+            if (smallest != null) {
+                return new HashSet<>(smallest);
+            }
+            if (query.hasPriceRange()) {
+                return range(byPrice, query.getMinPrice(), query.getMaxPrice());
+            }
+            if (query.hasPublishedRange()) {
+                return range(byPublishedDay,
+                        query.getPublishedFrom() == null ? null : query.getPublishedFrom().toEpochDay(),
+                        query.getPublishedTo() == null ? null : query.getPublishedTo().toEpochDay());
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addEntries(Book book) {
+        Long id = book.getId();
+        if (book.getIsbn() != null) {
+            addIsbn(book.getIsbn(), id);
+        }
+        add(byAuthor, book.getAuthor() == null ? null : book.getAuthor().getCode(), id);
+        add(byCategory, book.getCategory() == null ? null : book.getCategory().getCode(), id);
+        add(byPublisher, book.getPublisher() == null ? null : book.getPublisher().getCode(), id);
+        add(byPrice, book.getPrice(), id);
+        add(byPublishedDay, publishedDay(book), id);
+    }
+
+    private void removeEntries(Book book) {
+        Long id = book.getId();
+        if (book.getIsbn() != null) {
+            removeIsbn(book.getIsbn(), id);
+        }
+        remove(byAuthor, book.getAuthor() == null ? null : book.getAuthor().getCode(), id);
+        remove(byCategory, book.getCategory() == null ? null : book.getCategory().getCode(), id);
+        remove(byPublisher, book.getPublisher() == null ? null : book.getPublisher().getCode(), id);
+        remove(byPrice, book.getPrice(), id);
+        remove(byPublishedDay, publishedDay(book), id);
+    }
+
+    private void addIsbn(long isbn, long id) {
+        long indexed = byIsbn.get(isbn, MISSING);
+        if (indexed == MISSING) {
+            byIsbn.put(isbn, id);
+        } else if (indexed != id) {
+            bySharedIsbn.computeIfAbsent(isbn, ignored -> new HashSet<>(Collections.singleton(indexed))).add(id);
+        }
+    }
+
+    private void removeIsbn(long isbn, long id) {
+        Set<Long> shared = bySharedIsbn.get(isbn);
+        if (shared == null) {
+            byIsbn.remove(isbn, id);
+            return;
+        }
+        shared.remove(id);
+        // the primitive map keeps pointing at one of the remaining books
+        byIsbn.put(isbn, shared.iterator().next());
+        if (shared.size() == 1) {
+            bySharedIsbn.remove(isbn);
+        }
+    }
+
+    private static Long publishedDay(Book book) {
+        return book.getPublishedDate() == null ? null : book.getPublishedDate().toLocalDate().toEpochDay();
+    }
+
+    private static <K> void add(Map<K, Set<Long>> index, K key, Long id) {
+        if (key != null) {
+            index.computeIfAbsent(key, ignored -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static <K> void remove(Map<K, Set<Long>> index, K key, Long id) {
+        if (key == null) {
+            return;
+        }
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Set<Long> smaller(Set<Long> current, String code, Map<String, Set<Long>> index) {
+        if (code == null) {
+            return current;
+        }
+        Set<Long> ids = index.getOrDefault(code, Collections.emptySet());
+        return current == null || ids.size() < current.size() ? ids : current;
+    }
+
+    private static <K extends Comparable<K>> Set<Long> range(NavigableMap<K, Set<Long>> index, K from, K to) {
+        NavigableMap<K, Set<Long>> matching = index;
+        if (from != null && to != null) {
+            if (from.compareTo(to) > 0) {
+                return Collections.emptySet();
+            }
+            matching = index.subMap(from, true, to, true);
+        } else if (from != null) {
+            matching = index.tailMap(from, true);
+        } else if (to != null) {
+            matching = index.headMap(to, true);
+        }
+        Set<Long> ids = new HashSet<>();
+        matching.values().forEach(ids::addAll);
+        return ids;
+    }
+}
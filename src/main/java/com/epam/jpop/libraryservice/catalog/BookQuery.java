@@ -0,0 +1,69 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/*Search criteria over books, every criterion that is set has to match*/
+@Data
+public class BookQuery {
+
+    private Long isbn;
+    private String author;
+    private String category;
+    private String publisher;
+    private Double minPrice;
+    private Double maxPrice;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedTo;
+
+    public boolean matches(Book book) {
+        if (isbn != null && !isbn.equals(book.getIsbn())) {
+            return false;
+        }
+        if (author != null && (book.getAuthor() == null || !author.equals(book.getAuthor().getCode()))) {
+            return false;
+        }
+        if (category != null && (book.getCategory() == null || !category.equals(book.getCategory().getCode()))) {
+            return false;
+        }
+        if (publisher != null
+                && (book.getPublisher() == null || !publisher.equals(book.getPublisher().getCode()))) {
+            return false;
+        }
+        if (minPrice != null || maxPrice != null) {
+            Double price = book.getPrice();
+            if (price == null || (minPrice != null && price < minPrice) || (maxPrice != null && price > maxPrice)) {
+                return false;
+            }
+        }
+        if (publishedFrom != null || publishedTo != null) {
+            if (book.getPublishedDate() == null) {
+                return false;
+            }
+            LocalDate published = book.getPublishedDate().toLocalDate();
+            return (publishedFrom == null || !published.isBefore(publishedFrom))
+                    && (publishedTo == null || !published.isAfter(publishedTo));
+        }
+        return true;
+    }
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean hasPublishedRange() {
+        return publishedFrom != null || publishedTo != null;
+    }
+
+    public boolean isEmpty() {
+        return isbn == null && author == null && category == null && publisher == null
+                && !hasPriceRange() && !hasPublishedRange();
+    }
+}
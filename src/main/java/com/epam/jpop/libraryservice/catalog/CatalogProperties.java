@@ -0,0 +1,20 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.catalog")
+public class CatalogProperties {
+
+    /*Keep an in-process replica of the book catalog and serve book reads from it*/
+    private boolean enabled = false;
+
+    /*Delay between two synchronisations of the replica with the book service*/
+    private Duration refreshInterval = Duration.ofMinutes(1);
+
+    /*Age of the last successful synchronisation after which reads fall back to the book service*/
+    private Duration maxStaleness = Duration.ofMinutes(5);
+}
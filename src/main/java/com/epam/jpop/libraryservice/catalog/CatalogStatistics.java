@@ -0,0 +1,18 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CatalogStatistics {
+
+    private boolean enabled;
+    private boolean fresh;
+    private long size;
+    private long ageMillis;
+    private long syncCount;
+    private long syncFailureCount;
+    private long localReadCount;
+    private long fallbackCount;
+}
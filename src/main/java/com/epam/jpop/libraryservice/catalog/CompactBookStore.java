@@ -0,0 +1,299 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*Columnar storage for the books of the catalog replica.
+ * Ids, isbns, prices and publication days live in primitive arrays, titles as UTF-8 bytes, and authors,
+ * categories and publishers as codes into dictionaries, so a book costs a few dozen bytes and a handful
+ * of objects instead of a graph of boxed fields. Book objects are only materialized when they are read,
+ * typically right before serialization. Every materialized book gets its own author, category and publisher,
+ * so changing a book that was read leaves the store untouched.
+ */
+final class CompactBookStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_SLOT = -1;
+    private static final long NO_ISBN = Long.MIN_VALUE;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Dictionary<Author> authors = new Dictionary<>(CompactBookStore::copy);
+    private final Dictionary<Category> categories = new Dictionary<>(CompactBookStore::copy);
+    private final Dictionary<Publisher> publishers = new Dictionary<>(CompactBookStore::copy);
+
+    private final LongLongMap slots = new LongLongMap(INITIAL_CAPACITY);
+    private Columns columns = new Columns(INITIAL_CAPACITY);
+    private int highWater;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    Book get(long id) {
+        lock.readLock().lock();
+        try {
+            long slot = slots.get(id, NO_SLOT);
+            return slot == NO_SLOT ? null : materialize(columns, (int) slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*Whether the stored version of the book has the same content, compared without materializing it*/
+    boolean contains(Book book) {
+        lock.readLock().lock();
+        try {
+            long slot = slots.get(book.getId(), NO_SLOT);
+            return slot != NO_SLOT && columns.matches((int) slot, book);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*Stores the book and returns the version it replaced*/
+    Book put(Book book) {
+        lock.writeLock().lock();
+        try {
+            long slot = slots.get(book.getId(), NO_SLOT);
+            Book previous = null;
+            if (slot == NO_SLOT) {
+                slot = allocate();
+                slots.put(book.getId(), slot);
+            } else {
+                previous = materialize(columns, (int) slot);
+            }
+            columns.write((int) slot, book);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*Removes the book and returns the version that was stored*/
+    Book remove(long id) {
+        lock.writeLock().lock();
+        try {
+            long slot = slots.get(id, NO_SLOT);
+            if (slot == NO_SLOT) {
+                return null;
+            }
+            Book previous = materialize(columns, (int) slot);
+            slots.remove(id, slot);
+            columns.titles[(int) slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = (int) slot;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long[] ids() {
+        lock.readLock().lock();
+        try {
+            long[] ids = new long[slots.size()];
+            int count = 0;
+            for (int slot = 0; slot < highWater; slot++) {
+                if (isLive(slot)) {
+                    ids[count++] = columns.ids[slot];
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*Consistent view of all books sorted by id.
+     * Only the primitive columns are copied, the books are materialized one at a time as the list is read.
+     */
+    List<Book> snapshot() {
+        lock.readLock().lock();
+        try {
+            long[] ids = ids();
+            Arrays.sort(ids);
+            Columns copy = new Columns(ids.length);
+            for (int row = 0; row < ids.length; row++) {
+                copy.copyRow(row, columns, (int) slots.get(ids[row], NO_SLOT));
+            }
+            return new View(copy, ids.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isLive(int slot) {
+        return slots.get(columns.ids[slot], NO_SLOT) == slot;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == columns.ids.length) {
+            columns = columns.grow(highWater * 2);
+        }
+        return highWater++;
+    }
+
+    private Book materialize(Columns source, int row) {
+        byte[] title = source.titles[row];
+        int day = source.days[row];
+        return Book.builder()
+                .id(source.ids[row])
+                .title(title == null ? null : new String(title, StandardCharsets.UTF_8))
+                .author(authors.decode(source.authorCodes[row]))
+                .category(categories.decode(source.categoryCodes[row]))
+                .isbn(source.isbns[row] == NO_ISBN ? null : source.isbns[row])
+                .publisher(publishers.decode(source.publisherCodes[row]))
+                .publishedDate(day == NO_DAY ? null : Date.valueOf(LocalDate.ofEpochDay(day)))
+                .price(Double.isNaN(source.prices[row]) ? null : source.prices[row])
+                .build();
+    }
+
+    private static Author copy(Author author) {
+        Author copy = new Author();
+        copy.setCode(author.getCode());
+        copy.setName(author.getName());
+        copy.setAddress(author.getAddress());
+        copy.setPhoneNumber(author.getPhoneNumber());
+        return copy;
+    }
+
+    private static Category copy(Category category) {
+        Category copy = new Category();
+        copy.setCode(category.getCode());
+        copy.setName(category.getName());
+        copy.setDesc(category.getDesc());
+        return copy;
+    }
+
+    private static Publisher copy(Publisher publisher) {
+        Publisher copy = new Publisher();
+        copy.setCode(publisher.getCode());
+        copy.setName(publisher.getName());
+        copy.setDesc(publisher.getDesc());
+        return copy;
+    }
+
+    private final class View extends AbstractList<Book> implements RandomAccess {
+
+        private final Columns rows;
+        private final int size;
+
+        private View(Columns rows, int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public Book get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return materialize(rows, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /*One array per field, indexed by slot. A missing price is stored as NaN*/
+    private final class Columns {
+
+        private final long[] ids;
+        private final long[] isbns;
+        private final double[] prices;
+        private final int[] days;
+        private final int[] authorCodes;
+        private final int[] categoryCodes;
+        private final int[] publisherCodes;
+        private final byte[][] titles;
+
+        private Columns(int capacity) {
+            this(new long[capacity], new long[capacity], new double[capacity], new int[capacity],
+                    new int[capacity], new int[capacity], new int[capacity], new byte[capacity][]);
+        }
+
+        private Columns(long[] ids, long[] isbns, double[] prices, int[] days, int[] authorCodes,
+                        int[] categoryCodes, int[] publisherCodes, byte[][] titles) {
+            this.ids = ids;
+            this.isbns = isbns;
+            this.prices = prices;
+            this.days = days;
+            this.authorCodes = authorCodes;
+            this.categoryCodes = categoryCodes;
+            this.publisherCodes = publisherCodes;
+            this.titles = titles;
+        }
+
+        private Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(isbns, capacity),
+                    Arrays.copyOf(prices, capacity), Arrays.copyOf(days, capacity), Arrays.copyOf(authorCodes, capacity),
+                    Arrays.copyOf(categoryCodes, capacity), Arrays.copyOf(publisherCodes, capacity),
+                    Arrays.copyOf(titles, capacity));
+        }
+
+        private void write(int slot, Book book) {
+            ids[slot] = book.getId();
+            isbns[slot] = book.getIsbn() == null ? NO_ISBN : book.getIsbn();
+            prices[slot] = book.getPrice() == null ? Double.NaN : book.getPrice();
+            days[slot] = day(book);
+            authorCodes[slot] = authors.encode(book.getAuthor());
+            categoryCodes[slot] = categories.encode(book.getCategory());
+            publisherCodes[slot] = publishers.encode(book.getPublisher());
+            titles[slot] = book.getTitle() == null ? null : book.getTitle().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private boolean matches(int slot, Book book) {
+            return isbns[slot] == (book.getIsbn() == null ? NO_ISBN : book.getIsbn())
+                    && Double.compare(prices[slot], book.getPrice() == null ? Double.NaN : book.getPrice()) == 0
+                    && days[slot] == day(book)
+                    && authorCodes[slot] == authors.find(book.getAuthor())
+                    && categoryCodes[slot] == categories.find(book.getCategory())
+                    && publisherCodes[slot] == publishers.find(book.getPublisher())
+                    && Arrays.equals(titles[slot],
+                    book.getTitle() == null ? null : book.getTitle().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void copyRow(int row, Columns source, int slot) {
+            ids[row] = source.ids[slot];
+            isbns[row] = source.isbns[slot];
+            prices[row] = source.prices[slot];
+            days[row] = source.days[slot];
+            authorCodes[row] = source.authorCodes[slot];
+            categoryCodes[row] = source.categoryCodes[slot];
+            publisherCodes[row] = source.publisherCodes[slot];
+            titles[row] = source.titles[slot];
+        }
+
+        private int day(Book book) {
+            return book.getPublishedDate() == null ? NO_DAY : (int) book.getPublishedDate().toLocalDate().toEpochDay();
+        }
+    }
+}
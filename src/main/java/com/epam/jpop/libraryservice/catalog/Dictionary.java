@@ -0,0 +1,59 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/*Assigns a dense int code to every distinct value, so that equal authors, categories and publishers
+ * are held once however many books refer to them. Codes are never reclaimed. Encoding is guarded by the
+ * owning store, decoding is safe from any thread. The values are mutable beans, so the dictionary keeps
+ * its own copy of each and hands out copies, and no caller can change a value shared by other books.
+ */
+final class Dictionary<T> {
+
+    static final int NONE = -1;
+
+    private final UnaryOperator<T> copier;
+    private final Map<T, Integer> codes = new HashMap<>();
+    private volatile Object[] values = new Object[64];
+    private int size;
+
+    Dictionary(UnaryOperator<T> copier) {
+        this.copier = copier;
+    }
+
+    int encode(T value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        T copy = copier.apply(value);
+        Object[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = copy;
+        values = current;
+        codes.put(copy, size);
+        return size++;
+    }
+
+    /*Code of a value without adding it, NONE for null and for values never encoded*/
+    int find(T value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code == null ? NONE : code;
+    }
+
+    @SuppressWarnings("unchecked")
+    T decode(int code) {
+        return code == NONE ? null : copier.apply((T) values[code]);
+    }
+
+    int size() {
+        return size;
+    }
+}
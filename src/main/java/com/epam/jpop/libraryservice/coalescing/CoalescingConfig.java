@@ -0,0 +1,14 @@
+package com.epam.jpop.libraryservice.coalescing;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CoalescingConfig {
+
+    /*Shared by the full book and user listings, keyed by the downstream resource being listed*/
+    @Bean
+    public SingleFlight<String, Object> listingFlight() {
+        return new SingleFlight<>("listings");
+    }
+}
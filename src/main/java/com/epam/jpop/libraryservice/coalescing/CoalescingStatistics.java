@@ -0,0 +1,20 @@
+package com.epam.jpop.libraryservice.coalescing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CoalescingStatistics {
+
+    /*Calls that were actually made to the downstream service*/
+    private long executions;
+
+    /*Callers that shared the result of a call already in flight instead of making their own*/
+    private long collapsed;
+
+    /*Calls that ended with an exception*/
+    private long failures;
+
+    private int inFlight;
+}
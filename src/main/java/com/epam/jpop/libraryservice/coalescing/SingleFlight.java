@@ -0,0 +1,203 @@
+package com.epam.jpop.libraryservice.coalescing;
+
+import com.epam.jpop.libraryservice.exception.LibraryException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*Collapses concurrent identical calls into one.
+ * The first caller for a key runs the call, every caller arriving while it is in flight waits for
+ * and shares its result or exception. Nothing is remembered once the call has completed.
+ * A reactive call is only cancelled once every caller waiting for it has cancelled, so a caller
+ * that goes away does not fail the others.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    public V execute(K key, Callable<? extends V> call) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            // a blocking caller cannot cancel, so it keeps the call it joined alive until it completes
+            if (existing.retain()) {
+                collapsed.increment();
+                return await(key, existing.result);
+            }
+            inFlight.remove(key, existing);
+        }
+        executions.increment();
+        try {
+            V value = call.call();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            flight.result.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            failures.increment();
+            LibraryException exception = new LibraryException("Unable to load " + name + " entry " + key, e);
+            flight.result.completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public Mono<V> executeAsync(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            Flight<V> flight = new Flight<>();
+            Flight<V> existing;
+            while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+                if (existing.retain()) {
+                    collapsed.increment();
+                    return subscribe(key, existing);
+                }
+                // every caller of that call has cancelled it, it is replaced by a new one
+                inFlight.remove(key, existing);
+            }
+            executions.increment();
+            Mono<V> shared;
+            try {
+                shared = call.get();
+            } catch (RuntimeException e) {
+                failures.increment();
+                inFlight.remove(key, flight);
+                flight.result.completeExceptionally(e);
+                throw e;
+            }
+            // the call is subscribed on behalf of all callers, so that none of them can cancel it for the others
+            flight.upstream.update(shared.subscribe(
+                    value -> {
+                        inFlight.remove(key, flight);
+                        flight.result.complete(value);
+                    },
+                    e -> {
+                        failures.increment();
+                        inFlight.remove(key, flight);
+                        flight.result.completeExceptionally(e);
+                    },
+                    () -> {
+                        inFlight.remove(key, flight);
+                        flight.result.complete(null);
+                    }));
+            return subscribe(key, flight);
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("library.coalescing.executions", executions, LongAdder::sum)
+                .description("Calls that were actually made to the downstream service")
+                .tags("name", name)
+                .register(registry);
+        FunctionCounter.builder("library.coalescing.collapsed", collapsed, LongAdder::sum)
+                .description("Callers that shared the result of a call already in flight")
+                .tags("name", name)
+                .register(registry);
+        FunctionCounter.builder("library.coalescing.failures", failures, LongAdder::sum)
+                .description("Calls that ended with an exception, which was shared by all of their callers")
+                .tags("name", name)
+                .register(registry);
+        Gauge.builder("library.coalescing.in.flight", inFlight, ConcurrentMap::size)
+                .tags("name", name)
+                .register(registry);
+    }
+
+    public CoalescingStatistics statistics() {
+        return new CoalescingStatistics(executions.sum(), collapsed.sum(), failures.sum(), inFlight.size());
+    }
+
+    private V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LibraryException("Interrupted while waiting for " + name + " entry " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LibraryException("Unable to load " + name + " entry " + key, cause);
+        }
+    }
+
+    private Mono<V> subscribe(K key, Flight<V> flight) {
+        // each caller gets its own view of the shared result, so that cancelling it never cancels the result,
+        // and the exception is passed on as it was raised instead of wrapped into a CompletionException
+        CompletableFuture<V> view = new CompletableFuture<>();
+        flight.result.whenComplete((value, e) -> {
+            if (e != null) {
+                view.completeExceptionally(e);
+            } else {
+                view.complete(value);
+            }
+        });
+        return Mono.fromFuture(view)
+                .doOnCancel(() -> {
+                    if (flight.release()) {
+                        inFlight.remove(key, flight);
+                        flight.upstream.dispose();
+                        flight.result.completeExceptionally(
+                                new CancellationException("Call for " + key + " was cancelled"));
+                    }
+                });
+    }
+
+    /*A call in flight and the number of callers waiting for it*/
+    private static class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);
+        /*Disposing it first disposes the subscription as soon as it is set*/
+        private final Disposable.Swap upstream = Disposables.swap();
+
+        /*Joins the call, unless every caller has already cancelled it*/
+        private boolean retain() {
+            int count;
+            do {
+                count = callers.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!callers.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /*Leaves the call, true for the last caller to leave before it completed*/
+        private boolean release() {
+            return callers.decrementAndGet() == 0 && !result.isDone();
+        }
+    }
+}
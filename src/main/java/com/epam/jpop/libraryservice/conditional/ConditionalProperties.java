@@ -0,0 +1,21 @@
+package com.epam.jpop.libraryservice.conditional;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "library.conditional")
+public class ConditionalProperties {
+
+    /*Tag the v1 and v2 read responses with an ETag and answer a matching If-None-Match with 304*/
+    private boolean enabled = true;
+
+    /*Cache-Control sent by the read endpoints that have no policy of their own*/
+    private String defaultCacheControl = "no-cache";
+
+    /*Cache-Control per read endpoint: books, book, search, users or user*/
+    private Map<String, String> cacheControl = new LinkedHashMap<>();
+}
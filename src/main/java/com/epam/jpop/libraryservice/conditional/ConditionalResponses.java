@@ -0,0 +1,76 @@
+package com.epam.jpop.libraryservice.conditional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*Builds the responses of the read endpoints with their validators and caching policy.
+ * A GET whose If-None-Match matches the ETag of the returned entity is answered with 304 by Spring MVC
+ * before the body is handed to a message converter, so nothing is serialized for it. The tag of the last
+ * body of each endpoint is remembered by identity, so that a listing served again from the catalog
+ * replica or a coalesced call is not hashed again.
+ */
+@Component
+@EnableConfigurationProperties(ConditionalProperties.class)
+public class ConditionalResponses {
+
+    private final ConditionalProperties properties;
+
+    private final ObjectWriter writer;
+
+    private final ConcurrentMap<String, Tagged> lastTags = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConditionalResponses(ConditionalProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.writer = objectMapper.writer();
+    }
+
+    public <T> ResponseEntity<T> ok(String endpoint, T body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl(endpoint));
+        if (properties.isEnabled() && body != null) {
+            builder.eTag(tag(endpoint, body));
+        }
+        return builder.body(body);
+    }
+
+    /*Caching policy for a relayed response, which the downstream service may still override with its own*/
+    public void prepareRelay(String endpoint, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(endpoint));
+    }
+
+    public String cacheControl(String endpoint) {
+        return properties.getCacheControl().getOrDefault(endpoint, properties.getDefaultCacheControl());
+    }
+
+    private String tag(String endpoint, Object body) {
+        Tagged last = lastTags.get(endpoint);
+        if (last != null && last.body == body) {
+            return last.tag;
+        }
+        String tag = EntityTags.of(body, writer);
+        lastTags.put(endpoint, new Tagged(body, tag));
+        return tag;
+    }
+
+    private static final class Tagged {
+
+        private final Object body;
+        private final String tag;
+
+        private Tagged(Object body, String tag) {
+            this.body = body;
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.epam.jpop.libraryservice.conditional;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Objects;
+
+/*Entity tags derived from the content of a response body.
+ * A single entity is tagged with a digest of its JSON form, since its own hash code has only 32 bits.
+ * A listing is tagged from the hash codes of its elements, so that it is not serialized once more.
+ * The tag is weak: equal content always yields the same tag on every instance, whichever representation
+ * it is written in.
+ */
+public final class EntityTags {
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private EntityTags() {
+    }
+
+    public static String of(Object body, ObjectWriter writer) {
+        return "W/\"" + Long.toHexString(fingerprint(body, writer)) + "\"";
+    }
+
+    static long fingerprint(Object body, ObjectWriter writer) {
+        if (body instanceof Collection) {
+            // folded element by element into 64 bits, so a large listing does not hinge on a single int
+            Collection<?> elements = (Collection<?>) body;
+            long hash = elements.size();
+            for (Object element : elements) {
+                hash = hash * MULTIPLIER + Objects.hashCode(element);
+            }
+            return mix(hash);
+        }
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        try (OutputStream out = Funnels.asOutputStream(hasher)) {
+            writer.writeValue(out, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hasher.hash().asLong();
+    }
+
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
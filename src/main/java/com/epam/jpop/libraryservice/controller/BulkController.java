@@ -0,0 +1,104 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.batch.BulkExporter;
+import com.epam.jpop.libraryservice.batch.BulkImporter;
+import com.epam.jpop.libraryservice.batch.RecordFormat;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.reactive.ReactiveBookClient;
+import com.epam.jpop.libraryservice.reactive.ReactiveUserClient;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/*Bulk import and export of books and users as NDJSON or CSV
+ * Uploads are parsed and written downstream while they arrive, and every record gets a result line.
+ */
+@RestController
+@RequestMapping("/api/lib")
+public class BulkController {
+
+    private static Logger logger = LoggerFactory.getLogger(BulkController.class);
+
+    private static final Book BOOK_PROTOTYPE = Book.builder()
+            .author(new Author())
+            .category(new Category())
+            .publisher(new Publisher())
+            .build();
+    private static final User USER_PROTOTYPE = new User();
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    @Autowired
+    private BulkExporter bulkExporter;
+
+    @Autowired
+    private ReactiveBookClient bookClient;
+
+    @Autowired
+    private ReactiveUserClient userClient;
+
+    @Autowired
+    private BookCatalog bookCatalog;
+
+    private final String booksUri = "http://book-service/api/books/";
+    private final String usersUri = "http://user-service/api/users/";
+
+    @PostMapping(value = "/books/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ApiOperation(value = "Add books from an NDJSON or CSV upload, with one NDJSON result line per record")
+    public void importBooks(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Importing books into the library");
+        response.setContentType(RecordFormat.NDJSON.getMediaType());
+        bulkImporter.importRecords(request.getInputStream(), RecordFormat.fromContentType(request.getContentType()),
+                Book.class, book -> bookClient.addBook(book).doOnNext(bookCatalog::put), Book::getId,
+                response.getOutputStream());
+    }
+
+    @PostMapping(value = "/users/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ApiOperation(value = "Add users from an NDJSON or CSV upload, with one NDJSON result line per record")
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Importing users into the library");
+        response.setContentType(RecordFormat.NDJSON.getMediaType());
+        bulkImporter.importRecords(request.getInputStream(), RecordFormat.fromContentType(request.getContentType()),
+                User.class, userClient::addUser, User::getId, response.getOutputStream());
+    }
+
+    @GetMapping("/books/export")
+    @ApiOperation(value = "Export all the books of the library as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @ApiParam(value = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        RecordFormat recordFormat = RecordFormat.fromName(format);
+        Optional<List<Book>> local = bookCatalog.getBooks();
+        StreamingResponseBody body = local.isPresent()
+                ? bulkExporter.export(local.get(), recordFormat, BOOK_PROTOTYPE)
+                : bulkExporter.export(booksUri, Book.class, recordFormat, BOOK_PROTOTYPE);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(recordFormat.getMediaType())).body(body);
+    }
+
+    @GetMapping("/users/export")
+    @ApiOperation(value = "Export all the users of the library as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @ApiParam(value = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        RecordFormat recordFormat = RecordFormat.fromName(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(recordFormat.getMediaType()))
+                .body(bulkExporter.export(usersUri, User.class, recordFormat, USER_PROTOTYPE));
+    }
+}
@@ -0,0 +1,58 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.cache.CacheStatistics;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.catalog.CatalogStatistics;
+import com.epam.jpop.libraryservice.coalescing.CoalescingStatistics;
+import com.epam.jpop.libraryservice.coalescing.SingleFlight;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private ReadThroughCache<Long, User> userCache;
+
+    @Autowired
+    private SingleFlight<String, Object> listingFlight;
+
+    @Autowired
+    private BookCatalog bookCatalog;
+
+    @GetMapping("/stats")
+    @ApiOperation(value = "View hit, miss and eviction counters of the book and user caches")
+    public Map<String, CacheStatistics> getStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+        statistics.put(bookCache.getName(), bookCache.statistics());
+        statistics.put(userCache.getName(), userCache.statistics());
+        return statistics;
+    }
+
+    @GetMapping("/coalescing")
+    @ApiOperation(value = "View how many concurrent identical listing requests shared a single downstream call")
+    public Map<String, CoalescingStatistics> getCoalescingStatistics() {
+        Map<String, CoalescingStatistics> statistics = new LinkedHashMap<>();
+        statistics.put(listingFlight.getName(), listingFlight.statistics());
+        return statistics;
+    }
+
+    @GetMapping("/catalog")
+    @ApiOperation(value = "View the size, age and read counters of the in-process book catalog replica")
+    public CatalogStatistics getCatalogStatistics() {
+        return bookCatalog.statistics();
+    }
+}
@@ -0,0 +1,33 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.http.ConnectionPoolStatistics;
+import io.swagger.annotations.ApiOperation;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pool")
+public class ConnectionPoolController {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @GetMapping("/stats")
+    @ApiOperation(value = "View leased, pending and available connections of the downstream connection pool")
+    public Map<String, ConnectionPoolStatistics> getStatistics() {
+        Map<String, ConnectionPoolStatistics> statistics = new LinkedHashMap<>();
+        statistics.put("total", new ConnectionPoolStatistics(connectionManager.getTotalStats()));
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            statistics.put(route.getTargetHost().toHostString(),
+                    new ConnectionPoolStatistics(connectionManager.getStats(route)));
+        }
+        return statistics;
+    }
+}
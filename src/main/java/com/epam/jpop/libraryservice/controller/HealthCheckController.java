@@ -1,5 +1,9 @@
 package com.epam.jpop.libraryservice.controller;
 
+import com.epam.jpop.libraryservice.startup.StartupWarmer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -8,8 +12,15 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("api")
 public class HealthCheckController {
 
+    @Autowired
+    private StartupWarmer startupWarmer;
+
+    /*Answers 503 until the instance has warmed up, so that it is not sent traffic before it is UP*/
     @GetMapping("/")
-    public String health(){
-        return "Hello World!";
+    public ResponseEntity<String> health(){
+        if (!startupWarmer.isWarm()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Starting");
+        }
+        return ResponseEntity.ok("Hello World!");
     }
 }
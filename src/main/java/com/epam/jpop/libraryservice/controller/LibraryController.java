@@ -1,11 +1,25 @@
 package com.epam.jpop.libraryservice.controller;
 
+import com.epam.jpop.libraryservice.admission.AdmissionControlled;
+import com.epam.jpop.libraryservice.admission.AdmissionPriority;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.catalog.BookQuery;
+import com.epam.jpop.libraryservice.coalescing.SingleFlight;
+import com.epam.jpop.libraryservice.conditional.ConditionalResponses;
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
 import com.epam.jpop.libraryservice.domain.Book;
 import com.epam.jpop.libraryservice.domain.Result;
 import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.WriteOperation;
 import com.epam.jpop.libraryservice.exception.LibraryException;
+import com.epam.jpop.libraryservice.exception.SearchUnavailableException;
 import com.epam.jpop.libraryservice.feign.BookClient;
 import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.epam.jpop.libraryservice.streaming.JsonArrayStreamer;
+import com.epam.jpop.libraryservice.streaming.ResponseRelay;
+import com.epam.jpop.libraryservice.writebehind.WriteBehindQueue;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
@@ -13,32 +27,80 @@ import io.swagger.annotations.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+
+import static com.epam.jpop.libraryservice.admission.Priority.LISTING;
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.BOOK_SERVICE;
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.USER_SERVICE;
 
 @RestController
 @RequestMapping("/api/lib")
+@AdmissionControlled
 public class LibraryController {
 
     private static Logger logger = LoggerFactory.getLogger(LibraryController.class);
 
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     @Autowired
     private RestTemplate restTemplate;
 
     @Autowired
+    @Lazy
     private BookClient bookClient;
 
     @Autowired
+    @Lazy
     private UserClient userClient;
 
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private ReadThroughCache<Long, User> userCache;
+
+    @Autowired
+    private SingleFlight<String, Object> listingFlight;
+
+    @Autowired
+    private JsonArrayStreamer jsonArrayStreamer;
+
+    @Autowired
+    private DownstreamCommands commands;
+
+    @Autowired
+    private ResponseRelay responseRelay;
+
+    @Autowired
+    private BookCatalog bookCatalog;
+
+    @Autowired
+    private ConditionalResponses conditionalResponses;
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
     private final String booksUri = "http://book-service/api/books/";
     private final String usersUri = "http://user-service/api/users/";
 
@@ -46,6 +108,7 @@ public class LibraryController {
      * Which includes all CRUD operations on Book
      */
     @GetMapping("/books")
+    @AdmissionPriority(LISTING)
     @ApiOperation(value = "View list of all available books in the library", response = List.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the list of books"),
@@ -53,44 +116,111 @@ public class LibraryController {
             @ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
             @ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
     })
-    public ResponseEntity<Object> getAllBooks() {
+    public ResponseEntity<Object> getAllBooks(
+            @ApiParam(value = "Page number to request from the book service") @RequestParam(required = false) Integer page,
+            @ApiParam(value = "Number of books per page") @RequestParam(required = false) Integer size,
+            @ApiParam(value = "Opaque cursor returned by a previous page") @RequestParam(required = false) String cursor,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         logger.info("Getting all the available books from the library");
-        ResponseEntity<Object> apiResponse = restTemplate.getForEntity(booksUri, Object.class);
-        return new ResponseEntity<>(apiResponse.getBody(), HttpStatus.OK);
+        if (page == null && size == null && cursor == null) {
+            Optional<List<Book>> local = bookCatalog.getBooks();
+            if (local.isPresent()) {
+                return conditionalResponses.ok("books", local.get());
+            }
+        }
+        String uri = pagedUri(booksUri, page, size, cursor);
+        if (responseRelay.isEnabled()) {
+            conditionalResponses.prepareRelay("books", response);
+            responseRelay.relay(BOOK_SERVICE, "getBooks", URI.create(uri), request, response);
+            return null;
+        }
+        Object books = listingFlight.execute(uri, () -> commands.execute(BOOK_SERVICE, "getBooks",
+                () -> restTemplate.getForObject(URI.create(uri), Object.class)));
+        return conditionalResponses.ok("books", books);
+    }
+
+    @GetMapping(value = "/books/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @AdmissionPriority(LISTING)
+    @ApiOperation(value = "Stream the list of books in the library as it arrives from the book service")
+    public StreamingResponseBody streamAllBooks(
+            @ApiParam(value = "Page number to request from the book service") @RequestParam(required = false) Integer page,
+            @ApiParam(value = "Number of books per page") @RequestParam(required = false) Integer size,
+            @ApiParam(value = "Opaque cursor returned by a previous page") @RequestParam(required = false) String cursor) {
+        logger.info("Streaming all the available books from the library");
+        return jsonArrayStreamer.stream(pagedUri(booksUri, page, size, cursor));
     }
 
     @GetMapping("/books/{id}")
     @ApiOperation(value = "Get a book by an Id")
     public ResponseEntity<Object> getBook(
             @ApiParam(value = "Enter the id of the book to retrieve from library", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         logger.info("Fetching the book details with an id from the library: {}", id);
-        ResponseEntity<Object> apiResponse = restTemplate.getForEntity(booksUri + id, Object.class);
-        return new ResponseEntity<>(apiResponse.getBody(), HttpStatus.OK);
+        Optional<Book> local = bookCatalog.getBook(id);
+        if (local.isPresent()) {
+            return conditionalResponses.ok("book", local.get());
+        }
+        if (responseRelay.isEnabled()) {
+            conditionalResponses.prepareRelay("book", response);
+            responseRelay.relay(BOOK_SERVICE, "getBook", URI.create(booksUri + id), request, response);
+            return null;
+        }
+        Book book = bookCache.get(id, () -> commands.execute(BOOK_SERVICE, "getBook",
+                () -> restTemplate.getForObject(booksUri + id, Book.class)));
+        return conditionalResponses.ok("book", book);
+    }
+
+    @GetMapping("/books/search")
+    @AdmissionPriority(LISTING)
+    @ApiOperation(value = "Search books by isbn, author, category or publisher code, price and publication date range",
+            response = List.class)
+    public ResponseEntity<List<Book>> searchBooks(@ModelAttribute BookQuery query) {
+        logger.info("Searching the books of the library: {}", query);
+        // scanning the whole downstream listing per search would cost more than every other request together
+        List<Book> books = bookCatalog.search(query).orElseThrow(
+                () -> new SearchUnavailableException("Search unavailable, the book catalog is not in sync"));
+        return conditionalResponses.ok("search", books);
     }
 
     @PostMapping("/books")
     @ApiOperation(value = "Add a new book to the library")
     public ResponseEntity<Object> addNewBook(
             @ApiParam(value = "New Book details object to save the book information to library", required = true)
-            @RequestBody Book book) {
-        ResponseEntity<Book> apiResponse = restTemplate.postForEntity(booksUri, book, Book.class);
+            @RequestBody Book book,
+            @ApiParam(value = "respond-async to have the book added in the background")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.accept(WriteOperation.ADD_BOOK, null, book));
+        }
+        ResponseEntity<Book> apiResponse = commands.execute(BOOK_SERVICE, "addBook",
+                () -> restTemplate.postForEntity(booksUri, book, Book.class));
         logger.info("Successfully added a new book to the library: {}", Objects.requireNonNull(apiResponse.getBody())
                 .getId());
+        bookCatalog.put(apiResponse.getBody());
         Result result = new Result(apiResponse.getBody().getId());
         return new ResponseEntity<>(result, HttpStatus.CREATED);
     }
 
     @PutMapping("/books/{id}")
     @ApiOperation(value = "Update an existing book from the library")
-    public void updateBook(
+    public ResponseEntity<Object> updateBook(
             @ApiParam(value = "Book Id to Update the details to", required = true) @PathVariable Long id,
-            @ApiParam(value = "Updated Book information", required = true) @Valid @RequestBody Book book) {
+            @ApiParam(value = "Updated Book information", required = true) @Valid @RequestBody Book book,
+            @ApiParam(value = "respond-async to have the book updated in the background")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
         if (!book.getId().equals(id)) {
             throw new LibraryException("Unable to find the entity to update");
         }
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.accept(WriteOperation.UPDATE_BOOK, id, book));
+        }
         HttpEntity httpEntity = new HttpEntity(book);
-        restTemplate.exchange(booksUri + id, HttpMethod.PUT, httpEntity, Book.class);
+        ResponseEntity<Book> apiResponse = commands.execute(BOOK_SERVICE, "updateBook",
+                () -> restTemplate.exchange(booksUri + id, HttpMethod.PUT, httpEntity, Book.class));
+        bookCache.invalidate(id);
+        bookCatalog.put(id, apiResponse.getBody() != null ? apiResponse.getBody() : book);
+        return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/books/{id}")
@@ -98,7 +228,9 @@ public class LibraryController {
     public void deleteBook(
             @ApiParam(value = "Book Id to delete the data from the library", required = true) @PathVariable Long id) {
         logger.info("Deleting the book from the library: {}", id);
-        restTemplate.delete(booksUri + id);
+        commands.run(BOOK_SERVICE, "deleteBook", () -> restTemplate.delete(booksUri + id));
+        bookCache.invalidate(id);
+        bookCatalog.remove(id);
     }
 
     /*API calls to Users micro service
@@ -106,6 +238,7 @@ public class LibraryController {
      */
 
     @GetMapping("/users")
+    @AdmissionPriority(LISTING)
     @ApiOperation(value = "View list of all available users in the library", response = List.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the list of users"),
@@ -113,28 +246,63 @@ public class LibraryController {
             @ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
             @ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
     })
-    public ResponseEntity<Object> getAllUsers() {
+    public ResponseEntity<Object> getAllUsers(
+            @ApiParam(value = "Page number to request from the user service") @RequestParam(required = false) Integer page,
+            @ApiParam(value = "Number of users per page") @RequestParam(required = false) Integer size,
+            @ApiParam(value = "Opaque cursor returned by a previous page") @RequestParam(required = false) String cursor,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         logger.info("Getting all the available users from the library");
-        ResponseEntity<Object> apiResponse = restTemplate.getForEntity(usersUri, Object.class);
-        return new ResponseEntity<>(apiResponse.getBody(), HttpStatus.OK);
+        String uri = pagedUri(usersUri, page, size, cursor);
+        if (responseRelay.isEnabled()) {
+            conditionalResponses.prepareRelay("users", response);
+            responseRelay.relay(USER_SERVICE, "getUsers", URI.create(uri), request, response);
+            return null;
+        }
+        Object users = listingFlight.execute(uri, () -> commands.execute(USER_SERVICE, "getUsers",
+                () -> restTemplate.getForObject(URI.create(uri), Object.class)));
+        return conditionalResponses.ok("users", users);
+    }
+
+    @GetMapping(value = "/users/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @AdmissionPriority(LISTING)
+    @ApiOperation(value = "Stream the list of users in the library as it arrives from the user service")
+    public StreamingResponseBody streamAllUsers(
+            @ApiParam(value = "Page number to request from the user service") @RequestParam(required = false) Integer page,
+            @ApiParam(value = "Number of users per page") @RequestParam(required = false) Integer size,
+            @ApiParam(value = "Opaque cursor returned by a previous page") @RequestParam(required = false) String cursor) {
+        logger.info("Streaming all the available users from the library");
+        return jsonArrayStreamer.stream(pagedUri(usersUri, page, size, cursor));
     }
 
     @GetMapping("/users/{id}")
     @ApiOperation(value = "Get a user by an Id")
     public ResponseEntity<Object> getUser(
             @ApiParam(value = "Enter the id of the user to retrieve from library", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         logger.info("Fetching the user details with an id from the library: {}", id);
-        ResponseEntity<Object> apiResponse = restTemplate.getForEntity(usersUri + id, Object.class);
-        return new ResponseEntity<>(apiResponse.getBody(), HttpStatus.OK);
+        if (responseRelay.isEnabled()) {
+            conditionalResponses.prepareRelay("user", response);
+            responseRelay.relay(USER_SERVICE, "getUser", URI.create(usersUri + id), request, response);
+            return null;
+        }
+        User user = userCache.get(id, () -> commands.execute(USER_SERVICE, "getUser",
+                () -> restTemplate.getForObject(usersUri + id, User.class)));
+        return conditionalResponses.ok("user", user);
     }
 
     @PostMapping("/users")
     @ApiOperation(value = "Add a new user to the library")
     public ResponseEntity<Object> addNewUser(
             @ApiParam(value = "New User details object to save the book information to library")
-            @RequestBody User user) {
-        ResponseEntity<User> apiResponse = restTemplate.postForEntity(usersUri, user, User.class);
+            @RequestBody User user,
+            @ApiParam(value = "respond-async to have the user added in the background")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.accept(WriteOperation.ADD_USER, null, user));
+        }
+        ResponseEntity<User> apiResponse = commands.execute(USER_SERVICE, "addUser",
+                () -> restTemplate.postForEntity(usersUri, user, User.class));
         logger.info("Successfully added a new user to the library: {}", Objects.requireNonNull(apiResponse.getBody()).getId());
         Result result = new Result(apiResponse.getBody().getId());
         return new ResponseEntity<>(result, HttpStatus.CREATED);
@@ -142,15 +310,23 @@ public class LibraryController {
 
     @PutMapping("/users/{id}")
     @ApiOperation(value = "Update an existing user from the library")
-    public void updateUser(
+    public ResponseEntity<Object> updateUser(
             @ApiParam(value = "User Id to Update the details to", required = true) @PathVariable Long id,
-            @ApiParam(value = "Updated User information", required = true) @Valid @RequestBody User user) {
+            @ApiParam(value = "Updated User information", required = true) @Valid @RequestBody User user,
+            @ApiParam(value = "respond-async to have the user updated in the background")
+            @RequestHeader(value = PREFER, required = false) String prefer) {
         if (!user.getId().equals(id)) {
             throw new LibraryException("Unable to find the entity to update");
         }
+        if (respondAsync(prefer)) {
+            return accepted(writeBehindQueue.accept(WriteOperation.UPDATE_USER, id, user));
+        }
 
         HttpEntity httpEntity = new HttpEntity(user);
-        restTemplate.exchange(usersUri + id, HttpMethod.PUT, httpEntity, User.class);
+        commands.execute(USER_SERVICE, "updateUser",
+                () -> restTemplate.exchange(usersUri + id, HttpMethod.PUT, httpEntity, User.class));
+        userCache.invalidate(id);
+        return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/users/{id}")
@@ -158,57 +334,131 @@ public class LibraryController {
     public void deleteUser(
             @ApiParam(value = "User Id to delete the data from the library", required = true) @PathVariable Long id) {
         logger.info("Deleting the user from the library: {}", id);
-        restTemplate.delete(usersUri + id);
+        commands.run(USER_SERVICE, "deleteUser", () -> restTemplate.delete(usersUri + id));
+        userCache.invalidate(id);
     }
 
     /*Using Feign clients with version 2*/
     @GetMapping("/books/v2")
-    public List<Book> getBooks() {
-        return bookClient.getBooks();
+    @AdmissionPriority(LISTING)
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<List<Book>> getBooks(@RequestParam(required = false) Integer page,
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        if (page == null && size == null && cursor == null) {
+            Optional<List<Book>> local = bookCatalog.getBooks();
+            if (local.isPresent()) {
+                return conditionalResponses.ok("books", local.get());
+            }
+            return conditionalResponses.ok("books", (List<Book>) listingFlight.execute("books/v2",
+                    () -> commands.execute(BOOK_SERVICE, "getBooks", bookClient::getBooks)));
+        }
+        return conditionalResponses.ok("books", (List<Book>) listingFlight.execute(
+                pagedUri("books/v2", page, size, cursor),
+                () -> commands.execute(BOOK_SERVICE, "getBooks", () -> bookClient.getBooks(page, size, cursor))));
     }
 
     @GetMapping("/books/v2/{id}")
-    public Book getSingleBook(@PathVariable Long id) {
-        return bookClient.getBook(id);
+    public ResponseEntity<Book> getSingleBook(@PathVariable Long id) {
+        Optional<Book> local = bookCatalog.getBook(id);
+        if (local.isPresent()) {
+            return conditionalResponses.ok("book", local.get());
+        }
+        return conditionalResponses.ok("book",
+                bookCache.get(id, () -> commands.execute(BOOK_SERVICE, "getBook", () -> bookClient.getBook(id))));
     }
 
     @PostMapping("/books/v2")
     public Book addSingleBook(@RequestBody Book book) {
-        return bookClient.addBook(book);
+        Book added = commands.execute(BOOK_SERVICE, "addBook", () -> bookClient.addBook(book));
+        bookCatalog.put(added);
+        return added;
     }
 
     @PutMapping("/books/v2/{id}")
     public Book updateSingleBook(@RequestBody Book book, @PathVariable Long id) {
-        return bookClient.updateBook(book, id);
+        Book updated = commands.execute(BOOK_SERVICE, "updateBook", () -> bookClient.updateBook(book, id));
+        bookCache.invalidate(id);
+        bookCatalog.put(id, updated != null ? updated : book);
+        return updated;
     }
 
     @DeleteMapping("/books/v2/{id}")
     public Book deleteSingleBook(@PathVariable Long id) {
-        return bookClient.deleteBook(id);
+        Book deleted = commands.execute(BOOK_SERVICE, "deleteBook", () -> bookClient.deleteBook(id));
+        bookCache.invalidate(id);
+        bookCatalog.remove(id);
+        return deleted;
     }
 
     @GetMapping("/users/v2")
-    public List<User> getUsers() {
-        return userClient.getUsers();
+    @AdmissionPriority(LISTING)
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<List<User>> getUsers(@RequestParam(required = false) Integer page,
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String cursor) {
+        if (page == null && size == null && cursor == null) {
+            return conditionalResponses.ok("users", (List<User>) listingFlight.execute("users/v2",
+                    () -> commands.execute(USER_SERVICE, "getUsers", userClient::getUsers)));
+        }
+        return conditionalResponses.ok("users", (List<User>) listingFlight.execute(
+                pagedUri("users/v2", page, size, cursor),
+                () -> commands.execute(USER_SERVICE, "getUsers", () -> userClient.getUsers(page, size, cursor))));
     }
 
     @GetMapping("/users/v2/{id}")
-    public User getSingleUser(@PathVariable Long id) {
-        return userClient.getUser(id);
+    public ResponseEntity<User> getSingleUser(@PathVariable Long id) {
+        return conditionalResponses.ok("user",
+                userCache.get(id, () -> commands.execute(USER_SERVICE, "getUser", () -> userClient.getUser(id))));
     }
 
     @PostMapping("/users/v2")
     public User addSingleUser(@RequestBody User user) {
-        return userClient.addUser(user);
+        return commands.execute(USER_SERVICE, "addUser", () -> userClient.addUser(user));
     }
 
     @PutMapping("/users/v2/{id}")
     public User updateSingleUser(@RequestBody User user, @PathVariable Long id) {
-        return userClient.updateUser(user, id);
+        User updated = commands.execute(USER_SERVICE, "updateUser", () -> userClient.updateUser(user, id));
+        userCache.invalidate(id);
+        return updated;
     }
 
     @DeleteMapping("/users/v2/{id}")
     public User deleteSingleUser(@PathVariable Long id) {
-        return userClient.deleteUser(id);
+        User deleted = commands.execute(USER_SERVICE, "deleteUser", () -> userClient.deleteUser(id));
+        userCache.invalidate(id);
+        return deleted;
+    }
+
+    /*Writes are only queued when the client asked for it with Prefer: respond-async and the mode is enabled*/
+    private boolean respondAsync(String prefer) {
+        return prefer != null && prefer.contains(RESPOND_ASYNC) && writeBehindQueue.isEnabled();
+    }
+
+    private static ResponseEntity<Object> accepted(AcceptedResult result) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/lib/writes/{trackingId}")
+                .buildAndExpand(result.getTrackingId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(result);
+    }
+
+    /*Appends the paging parameters that were supplied, so that they reach the downstream service unchanged*/
+    private static String pagedUri(String uri, Integer page, Integer size, String cursor) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(uri);
+        if (page != null) {
+            builder.queryParam("page", page);
+        }
+        if (size != null) {
+            builder.queryParam("size", size);
+        }
+        if (cursor != null) {
+            builder.queryParam("cursor", cursor);
+        }
+        return builder.build().encode().toUriString();
     }
 }
@@ -0,0 +1,155 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.domain.Availability;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.LoanRequest;
+import com.epam.jpop.libraryservice.domain.Reservation;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.exception.LoanNotFoundException;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.loan.LoanService;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import feign.FeignException;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.BOOK_SERVICE;
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.USER_SERVICE;
+
+@RestController
+@RequestMapping("/api/lib")
+public class LoanController {
+
+    private static Logger logger = LoggerFactory.getLogger(LoanController.class);
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    @Lazy
+    private BookClient bookClient;
+
+    @Autowired
+    @Lazy
+    private UserClient userClient;
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private ReadThroughCache<Long, User> userCache;
+
+    @Autowired
+    private BookCatalog bookCatalog;
+
+    @Autowired
+    private DownstreamCommands commands;
+
+    /*Loans of books to users
+     * Which includes checkout, return and renewal, and the reservation queue per book
+     */
+    @PostMapping("/loans")
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiOperation(value = "Check a book out to a user")
+    public Loan checkout(
+            @ApiParam(value = "Book to lend and the user borrowing it", required = true)
+            @Valid @RequestBody LoanRequest request) {
+        requireBook(request.getBookId());
+        requireUser(request.getUserId());
+        Loan loan = loanService.checkout(request.getBookId(), request.getUserId());
+        logger.info("Lent the book {} to the user {}: {}", loan.getBookId(), loan.getUserId(), loan.getId());
+        return loan;
+    }
+
+    @PostMapping("/loans/{id}/return")
+    @ApiOperation(value = "Return a lent book to the library")
+    public Loan returnLoan(@ApiParam(value = "Loan Id to close", required = true) @PathVariable Long id) {
+        logger.info("Returning the loan: {}", id);
+        return loanService.returnLoan(id);
+    }
+
+    @PostMapping("/loans/{id}/renew")
+    @ApiOperation(value = "Extend an active loan by another loan period")
+    public Loan renewLoan(@ApiParam(value = "Loan Id to renew", required = true) @PathVariable Long id) {
+        logger.info("Renewing the loan: {}", id);
+        return loanService.renew(id);
+    }
+
+    @GetMapping("/loans/{id}")
+    @ApiOperation(value = "Get a loan by an Id")
+    public Loan getLoan(@PathVariable Long id) {
+        return loanService.getLoan(id);
+    }
+
+    @GetMapping("/loans")
+    @ApiOperation(value = "View the loans of a user", response = List.class)
+    public List<Loan> getLoans(@ApiParam(value = "User Id", required = true) @RequestParam Long userId) {
+        return loanService.getLoans(userId);
+    }
+
+    @PostMapping("/reservations")
+    @ResponseStatus(HttpStatus.CREATED)
+    @ApiOperation(value = "Queue a user for a book, a copy is held for them as soon as one is free")
+    public Reservation reserve(
+            @ApiParam(value = "Book to reserve and the user waiting for it", required = true)
+            @Valid @RequestBody LoanRequest request) {
+        requireBook(request.getBookId());
+        requireUser(request.getUserId());
+        return loanService.reserve(request.getBookId(), request.getUserId());
+    }
+
+    @DeleteMapping("/reservations/{id}")
+    @ApiOperation(value = "Cancel a reservation and pass a held copy on to the next user")
+    public Reservation cancelReservation(@PathVariable Long id) {
+        return loanService.cancelReservation(id);
+    }
+
+    @GetMapping("/inventory/{bookId}")
+    @ApiOperation(value = "View the copies of a book that are available, held for reservations and waited for")
+    public Availability getAvailability(@PathVariable Long bookId) {
+        return loanService.getAvailability(bookId);
+    }
+
+    @PutMapping("/inventory/{bookId}")
+    @ApiOperation(value = "Set the number of copies of a book owned by the library")
+    public Availability setCopies(@PathVariable Long bookId,
+                                  @ApiParam(value = "Copies owned", required = true) @RequestParam int copies) {
+        requireBook(bookId);
+        return loanService.setCopies(bookId, copies);
+    }
+
+    private void requireBook(Long bookId) {
+        try {
+            if (!bookCatalog.getBook(bookId).isPresent()) {
+                bookCache.get(bookId, () -> commands.execute(BOOK_SERVICE, "getBook", () -> bookClient.getBook(bookId)));
+            }
+        } catch (FeignException e) {
+            throw notFound(e, "Unable to find the book: " + bookId);
+        }
+    }
+
+    private void requireUser(Long userId) {
+        try {
+            userCache.get(userId, () -> commands.execute(USER_SERVICE, "getUser", () -> userClient.getUser(userId)));
+        } catch (FeignException e) {
+            throw notFound(e, "Unable to find the user: " + userId);
+        }
+    }
+
+    private static RuntimeException notFound(FeignException e, String message) {
+        return e.status() == HttpStatus.NOT_FOUND.value() ? new LoanNotFoundException(message) : e;
+    }
+}
@@ -0,0 +1,157 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.aggregation.UserSummaryAssembler;
+import com.epam.jpop.libraryservice.batch.BatchLookup;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.domain.BatchResult;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.UserSummary;
+import com.epam.jpop.libraryservice.reactive.ReactiveBookClient;
+import com.epam.jpop.libraryservice.reactive.ReactiveUserClient;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/*Non-blocking version 3 of the library API.
+ * Handlers return immediately and the servlet request completes asynchronously once the downstream
+ * call made through the reactive clients has finished, so a slow dependency does not pin Tomcat threads.
+ */
+@RestController
+@RequestMapping("/api/lib")
+public class ReactiveLibraryController {
+
+    @Autowired
+    private ReactiveBookClient bookClient;
+
+    @Autowired
+    private ReactiveUserClient userClient;
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private ReadThroughCache<Long, User> userCache;
+
+    @Autowired
+    private BatchLookup batchLookup;
+
+    @Autowired
+    private UserSummaryAssembler userSummaryAssembler;
+
+    @Autowired
+    private BookCatalog bookCatalog;
+
+    @GetMapping("/books/v3")
+    @ApiOperation(value = "View list of all available books in the library without blocking a request thread")
+    public Flux<Book> getBooks() {
+        return bookClient.getBooks();
+    }
+
+    @GetMapping("/books/v3/{id}")
+    @ApiOperation(value = "Get a book by an Id without blocking a request thread")
+    public Mono<Book> getSingleBook(@PathVariable Long id) {
+        return getCachedBook(id);
+    }
+
+    @GetMapping(value = "/books", params = "ids")
+    @ApiOperation(value = "Get several books by their Ids in one request")
+    public Mono<BatchResult<Book>> getBooksByIds(
+            @ApiParam(value = "Comma separated ids of the books to retrieve from library", required = true)
+            @RequestParam List<Long> ids) {
+        return batchLookup.fetchAll(ids, this::getCachedBook);
+    }
+
+    @PostMapping("/books/v3")
+    @ApiOperation(value = "Add a new book to the library without blocking a request thread")
+    public Mono<Book> addSingleBook(@RequestBody Book book) {
+        return bookClient.addBook(book);
+    }
+
+    @PutMapping("/books/v3/{id}")
+    @ApiOperation(value = "Update an existing book from the library without blocking a request thread")
+    public Mono<Book> updateSingleBook(@RequestBody Book book, @PathVariable Long id) {
+        return bookClient.updateBook(book, id).doFinally(signal -> bookCache.invalidate(id));
+    }
+
+    @DeleteMapping("/books/v3/{id}")
+    @ApiOperation(value = "Delete an existing book from the library without blocking a request thread")
+    public Mono<Book> deleteSingleBook(@PathVariable Long id) {
+        return bookClient.deleteBook(id).doFinally(signal -> bookCache.invalidate(id));
+    }
+
+    @GetMapping("/users/v3")
+    @ApiOperation(value = "View list of all available users in the library without blocking a request thread")
+    public Flux<User> getUsers() {
+        return userClient.getUsers();
+    }
+
+    @GetMapping("/users/v3/{id}")
+    @ApiOperation(value = "Get a user by an Id without blocking a request thread")
+    public Mono<User> getSingleUser(@PathVariable Long id) {
+        return getCachedUser(id);
+    }
+
+    @GetMapping(value = "/users", params = "ids")
+    @ApiOperation(value = "Get several users by their Ids in one request")
+    public Mono<BatchResult<User>> getUsersByIds(
+            @ApiParam(value = "Comma separated ids of the users to retrieve from library", required = true)
+            @RequestParam List<Long> ids) {
+        return batchLookup.fetchAll(ids, this::getCachedUser);
+    }
+
+    @GetMapping("/users/{id}/summary")
+    @ApiOperation(value = "Get a user with their loans and the details of every book lent, in one request")
+    public Mono<UserSummary> getUserSummary(
+            @ApiParam(value = "Enter the id of the user to summarize", required = true) @PathVariable Long id) {
+        return userSummaryAssembler.assemble(id, this::getCachedUser,
+                bookId -> bookCatalog.getBook(bookId).map(Mono::just).orElseGet(() -> getCachedBook(bookId)));
+    }
+
+    @PostMapping("/users/v3")
+    @ApiOperation(value = "Add a new user to the library without blocking a request thread")
+    public Mono<User> addSingleUser(@RequestBody User user) {
+        return userClient.addUser(user);
+    }
+
+    @PutMapping("/users/v3/{id}")
+    @ApiOperation(value = "Update an existing user from the library without blocking a request thread")
+    public Mono<User> updateSingleUser(@RequestBody User user, @PathVariable Long id) {
+        return userClient.updateUser(user, id).doFinally(signal -> userCache.invalidate(id));
+    }
+
+    @DeleteMapping("/users/v3/{id}")
+    @ApiOperation(value = "Delete an existing user from the library without blocking a request thread")
+    public Mono<User> deleteSingleUser(@PathVariable Long id) {
+        return userClient.deleteUser(id).doFinally(signal -> userCache.invalidate(id));
+    }
+
+    private Mono<Book> getCachedBook(Long id) {
+        return bookCache.getAsync(id, () -> bookClient.getBook(id));
+    }
+
+    private Mono<User> getCachedUser(Long id) {
+        return userCache.getAsync(id, () -> userClient.getUser(id));
+    }
+
+    /*Relays the status and body of a failed downstream call instead of turning it into a 500*/
+    @ExceptionHandler(WebClientResponseException.class)
+    public ResponseEntity<String> handleDownstreamError(WebClientResponseException e) {
+        HttpHeaders headers = new HttpHeaders();
+        MediaType contentType = e.getHeaders().getContentType();
+        if (contentType != null) {
+            headers.setContentType(contentType);
+        }
+        return new ResponseEntity<>(e.getResponseBodyAsString(), headers, e.getStatusCode());
+    }
+}
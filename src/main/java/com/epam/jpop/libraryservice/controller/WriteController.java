@@ -0,0 +1,30 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.domain.WriteProgress;
+import com.epam.jpop.libraryservice.exception.WriteNotFoundException;
+import com.epam.jpop.libraryservice.writebehind.WriteBehindQueue;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/*Progress of the book and user writes accepted with Prefer: respond-async*/
+@RestController
+@RequestMapping("/api/lib")
+public class WriteController {
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @GetMapping("/writes/{trackingId}")
+    @ApiOperation(value = "Get the progress of a write queued to be made in the background")
+    public WriteProgress getWrite(
+            @ApiParam(value = "Tracking id returned when the write was accepted", required = true)
+            @PathVariable String trackingId) {
+        return writeBehindQueue.getProgress(trackingId)
+                .orElseThrow(() -> new WriteNotFoundException("No write is tracked under the id " + trackingId));
+    }
+}
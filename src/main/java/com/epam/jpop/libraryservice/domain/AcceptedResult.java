@@ -0,0 +1,25 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/*Acknowledgment of a write queued to be made later, the id is only known upfront for updates*/
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class AcceptedResult extends Result {
+
+    private String trackingId;
+    private WriteStatus status;
+
+    public AcceptedResult() {
+        super(null);
+    }
+
+    public AcceptedResult(Long id, String trackingId, WriteStatus status) {
+        super(id);
+        this.trackingId = trackingId;
+        this.status = status;
+    }
+}
@@ -0,0 +1,17 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Availability {
+
+    private Long bookId;
+    private int copies;
+    private int available;
+    private int held;
+    private int waiting;
+}
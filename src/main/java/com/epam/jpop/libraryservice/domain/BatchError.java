@@ -0,0 +1,14 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchError {
+
+    private int status;
+    private String message;
+}
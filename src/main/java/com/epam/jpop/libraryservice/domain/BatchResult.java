@@ -0,0 +1,13 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class BatchResult<T> {
+
+    private Map<Long, T> results = new LinkedHashMap<>();
+    private Map<Long, BatchError> errors = new LinkedHashMap<>();
+}
@@ -0,0 +1,17 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResult {
+
+    /*Line of the upload the record was read from*/
+    private long line;
+    private int status;
+    private Long id;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class Loan {
+
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private LoanStatus status;
+    private Instant checkedOutAt;
+    private Instant dueAt;
+    private Instant returnedAt;
+    private int renewals;
+}
@@ -0,0 +1,17 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanDetails {
+
+    private Loan loan;
+    private Book book;
+
+    /*Why the book is missing, when it could not be fetched before the deadline*/
+    private BatchError error;
+}
@@ -0,0 +1,19 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanRequest {
+
+    @NotNull
+    private Long bookId;
+
+    @NotNull
+    private Long userId;
+}
@@ -0,0 +1,6 @@
+package com.epam.jpop.libraryservice.domain;
+
+public enum LoanStatus {
+    ACTIVE,
+    RETURNED
+}
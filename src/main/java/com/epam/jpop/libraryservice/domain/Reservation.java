@@ -0,0 +1,22 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class Reservation {
+
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private ReservationStatus status;
+    private Instant reservedAt;
+    private Instant readyAt;
+}
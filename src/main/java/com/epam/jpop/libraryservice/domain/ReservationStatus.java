@@ -0,0 +1,10 @@
+package com.epam.jpop.libraryservice.domain;
+
+public enum ReservationStatus {
+    /*Queued until a copy of the book is returned*/
+    WAITING,
+    /*A copy is held for the user until they check it out*/
+    READY,
+    FULFILLED,
+    CANCELLED
+}
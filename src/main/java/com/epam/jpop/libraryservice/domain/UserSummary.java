@@ -0,0 +1,23 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummary {
+
+    private User user;
+
+    /*Why the user is missing, when it could not be fetched before the deadline*/
+    private BatchError userError;
+
+    private List<LoanDetails> loans;
+
+    /*False when any part of the summary is missing*/
+    private boolean complete;
+}
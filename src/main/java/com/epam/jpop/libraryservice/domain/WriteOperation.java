@@ -0,0 +1,8 @@
+package com.epam.jpop.libraryservice.domain;
+
+public enum WriteOperation {
+    ADD_BOOK,
+    UPDATE_BOOK,
+    ADD_USER,
+    UPDATE_USER
+}
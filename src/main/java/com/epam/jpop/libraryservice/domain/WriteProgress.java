@@ -0,0 +1,26 @@
+package com.epam.jpop.libraryservice.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class WriteProgress {
+
+    private String trackingId;
+    private WriteOperation operation;
+    private Long id;
+    private WriteStatus status;
+    private int attempts;
+    /*Status of the downstream response that completed or failed the write*/
+    private Integer httpStatus;
+    private String message;
+    private Instant acceptedAt;
+    private Instant completedAt;
+}
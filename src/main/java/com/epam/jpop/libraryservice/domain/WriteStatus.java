@@ -0,0 +1,7 @@
+package com.epam.jpop.libraryservice.domain;
+
+public enum WriteStatus {
+    QUEUED,
+    COMPLETED,
+    FAILED
+}
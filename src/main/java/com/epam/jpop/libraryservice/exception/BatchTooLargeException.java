@@ -0,0 +1,12 @@
+package com.epam.jpop.libraryservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchTooLargeException extends LibraryException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.epam.jpop.libraryservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class LoanConflictException extends LibraryException {
+
+    public LoanConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.epam.jpop.libraryservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class LoanNotFoundException extends LibraryException {
+
+    public LoanNotFoundException(String message) {
+        super(message);
+    }
+}
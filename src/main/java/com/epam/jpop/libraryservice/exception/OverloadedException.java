@@ -0,0 +1,12 @@
+package com.epam.jpop.libraryservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OverloadedException extends LibraryException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
@@ -12,6 +12,11 @@ public interface BookClient {
     @GetMapping("/api/books")
     List<Book> getBooks();
 
+    @GetMapping("/api/books")
+    List<Book> getBooks(@RequestParam(value = "page", required = false) Integer page,
+                        @RequestParam(value = "size", required = false) Integer size,
+                        @RequestParam(value = "cursor", required = false) String cursor);
+
     @GetMapping("/api/books/{id}")
     Book getBook(@PathVariable Long id);
 
@@ -12,6 +12,11 @@ public interface UserClient {
     @GetMapping("/api/users")
     List<User> getUsers();
 
+    @GetMapping("/api/users")
+    List<User> getUsers(@RequestParam(value = "page", required = false) Integer page,
+                        @RequestParam(value = "size", required = false) Integer size,
+                        @RequestParam(value = "cursor", required = false) String cursor);
+
     @GetMapping("/api/users/{id}")
     User getUser(@PathVariable Long id);
 
@@ -0,0 +1,20 @@
+package com.epam.jpop.libraryservice.http;
+
+import lombok.Data;
+import org.apache.http.pool.PoolStats;
+
+@Data
+public class ConnectionPoolStatistics {
+
+    private int leased;
+    private int pending;
+    private int available;
+    private int max;
+
+    public ConnectionPoolStatistics(PoolStats stats) {
+        this.leased = stats.getLeased();
+        this.pending = stats.getPending();
+        this.available = stats.getAvailable();
+        this.max = stats.getMax();
+    }
+}
@@ -0,0 +1,33 @@
+package com.epam.jpop.libraryservice.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.http")
+public class HttpClientProperties {
+
+    /*Upper bound of pooled connections across all downstream instances*/
+    private int maxConnections = 200;
+
+    /*Upper bound of pooled connections to a single downstream instance (host and port)*/
+    private int maxConnectionsPerRoute = 50;
+
+    /*Pooled connections older than this are closed, so that instances behind a changing registry get rebalanced*/
+    private Duration timeToLive = Duration.ofMinutes(15);
+
+    /*Connections idle for longer than this are evicted by a background thread*/
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /*Idle connections are re-validated before reuse once they have been inactive for this long*/
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    private Duration connectTimeout = Duration.ofSeconds(30);
+
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /*How long a request waits for a free connection once the pool is exhausted*/
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+}
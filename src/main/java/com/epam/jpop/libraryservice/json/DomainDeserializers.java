@@ -0,0 +1,311 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.Result;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.WriteStatus;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.sql.Date;
+
+/*Deserializers of the domain types reading the fields straight off the parser.
+ * Each field name is dispatched with a string switch, so a property costs a hash and one comparison rather
+ * than a property map lookup and a reflective setter. Values of an unexpected type, such as a number sent as
+ * a string, are left to the mapper's own coercion, and unknown properties to its configured handling.
+ */
+final class DomainDeserializers {
+
+    static final StdDeserializer<Author> AUTHOR_DESERIALIZER = new DomainDeserializer<Author>(Author.class) {
+        @Override
+        Author create() {
+            return new Author();
+        }
+
+        @Override
+        boolean readField(Author author, String field, JsonParser parser, DeserializationContext context)
+                throws IOException {
+            switch (field) {
+                case "code":
+                    author.setCode(string(parser, context));
+                    return true;
+                case "name":
+                    author.setName(string(parser, context));
+                    return true;
+                case "address":
+                    author.setAddress(string(parser, context));
+                    return true;
+                case "phoneNumber":
+                    author.setPhoneNumber(string(parser, context));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    static final StdDeserializer<Category> CATEGORY_DESERIALIZER = new DomainDeserializer<Category>(Category.class) {
+        @Override
+        Category create() {
+            return new Category();
+        }
+
+        @Override
+        boolean readField(Category category, String field, JsonParser parser, DeserializationContext context)
+                throws IOException {
+            switch (field) {
+                case "code":
+                    category.setCode(string(parser, context));
+                    return true;
+                case "name":
+                    category.setName(string(parser, context));
+                    return true;
+                case "desc":
+                    category.setDesc(string(parser, context));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    static final StdDeserializer<Publisher> PUBLISHER_DESERIALIZER =
+            new DomainDeserializer<Publisher>(Publisher.class) {
+                @Override
+                Publisher create() {
+                    return new Publisher();
+                }
+
+                @Override
+                boolean readField(Publisher publisher, String field, JsonParser parser, DeserializationContext context)
+                        throws IOException {
+                    switch (field) {
+                        case "code":
+                            publisher.setCode(string(parser, context));
+                            return true;
+                        case "name":
+                            publisher.setName(string(parser, context));
+                            return true;
+                        case "desc":
+                            publisher.setDesc(string(parser, context));
+                            return true;
+                        default:
+                            return false;
+                    }
+                }
+            };
+
+    static final StdDeserializer<Book> BOOK_DESERIALIZER = new BookDeserializer(null);
+
+    static final StdDeserializer<User> USER_DESERIALIZER = new DomainDeserializer<User>(User.class) {
+        @Override
+        User create() {
+            return new User();
+        }
+
+        @Override
+        boolean readField(User user, String field, JsonParser parser, DeserializationContext context)
+                throws IOException {
+            switch (field) {
+                case "id":
+                    user.setId(longValue(parser, context));
+                    return true;
+                case "name":
+                    user.setName(string(parser, context));
+                    return true;
+                case "role":
+                    user.setRole(string(parser, context));
+                    return true;
+                case "email":
+                    user.setEmail(string(parser, context));
+                    return true;
+                case "phoneNumber":
+                    user.setPhoneNumber(string(parser, context));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    };
+
+    static final StdDeserializer<Result> RESULT_DESERIALIZER = new DomainDeserializer<Result>(Result.class) {
+        @Override
+        Result create() {
+            return new Result(null);
+        }
+
+        @Override
+        boolean readField(Result result, String field, JsonParser parser, DeserializationContext context)
+                throws IOException {
+            if ("id".equals(field)) {
+                result.setId(longValue(parser, context));
+                return true;
+            }
+            return false;
+        }
+    };
+
+    static final StdDeserializer<AcceptedResult> ACCEPTED_RESULT_DESERIALIZER =
+            new DomainDeserializer<AcceptedResult>(AcceptedResult.class) {
+                @Override
+                AcceptedResult create() {
+                    return new AcceptedResult();
+                }
+
+                @Override
+                boolean readField(AcceptedResult result, String field, JsonParser parser,
+                                  DeserializationContext context) throws IOException {
+                    switch (field) {
+                        case "id":
+                            result.setId(longValue(parser, context));
+                            return true;
+                        case "trackingId":
+                            result.setTrackingId(string(parser, context));
+                            return true;
+                        case "status":
+                            result.setStatus(parser.hasToken(JsonToken.VALUE_NULL) ? null
+                                    : context.readValue(parser, WriteStatus.class));
+                            return true;
+                        default:
+                            return false;
+                    }
+                }
+            };
+
+    private DomainDeserializers() {
+    }
+
+    /*Resolves the date deserializer of the mapper once, rather than looking it up for every book read*/
+    private static final class BookDeserializer extends DomainDeserializer<Book> implements ContextualDeserializer {
+
+        private final JsonDeserializer<Object> dates;
+
+        private BookDeserializer(JsonDeserializer<Object> dates) {
+            super(Book.class);
+            this.dates = dates;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property)
+                throws JsonMappingException {
+            if (dates != null) {
+                return this;
+            }
+            return new BookDeserializer(context.findContextualValueDeserializer(context.constructType(Date.class),
+                    property));
+        }
+
+        @Override
+        Book create() {
+            return new Book();
+        }
+
+        @Override
+        boolean readField(Book book, String field, JsonParser parser, DeserializationContext context)
+                throws IOException {
+            switch (field) {
+                case "id":
+                    book.setId(longValue(parser, context));
+                    return true;
+                case "title":
+                    book.setTitle(string(parser, context));
+                    return true;
+                case "author":
+                    book.setAuthor(object(parser, context, AUTHOR_DESERIALIZER));
+                    return true;
+                case "category":
+                    book.setCategory(object(parser, context, CATEGORY_DESERIALIZER));
+                    return true;
+                case "isbn":
+                    book.setIsbn(longValue(parser, context));
+                    return true;
+                case "publisher":
+                    book.setPublisher(object(parser, context, PUBLISHER_DESERIALIZER));
+                    return true;
+                case "publishedDate":
+                    book.setPublishedDate(parser.hasToken(JsonToken.VALUE_NULL) ? null : date(parser, context));
+                    return true;
+                case "price":
+                    book.setPrice(doubleValue(parser, context));
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private Date date(JsonParser parser, DeserializationContext context) throws IOException {
+            return dates == null ? context.readValue(parser, Date.class) : (Date) dates.deserialize(parser, context);
+        }
+    }
+
+    private abstract static class DomainDeserializer<T> extends StdDeserializer<T> {
+
+        private DomainDeserializer(Class<T> type) {
+            super(type);
+        }
+
+        abstract T create();
+
+        /*Reads the value the parser is positioned on into the field, false if the field is unknown*/
+        abstract boolean readField(T value, String field, JsonParser parser, DeserializationContext context)
+                throws IOException;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String field;
+            if (parser.isExpectedStartObjectToken()) {
+                field = parser.nextFieldName();
+            } else if (parser.hasToken(JsonToken.FIELD_NAME)) {
+                field = parser.getCurrentName();
+            } else {
+                return (T) context.handleUnexpectedToken(handledType(), parser);
+            }
+            T value = create();
+            for (; field != null; field = parser.nextFieldName()) {
+                parser.nextToken();
+                if (!readField(value, field, parser, context)) {
+                    context.handleUnknownProperty(parser, this, value, field);
+                }
+            }
+            return value;
+        }
+    }
+
+    private static String string(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_STRING)) {
+            return parser.getText();
+        }
+        return parser.hasToken(JsonToken.VALUE_NULL) ? null : context.readValue(parser, String.class);
+    }
+
+    private static Long longValue(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            return parser.getLongValue();
+        }
+        return parser.hasToken(JsonToken.VALUE_NULL) ? null : context.readValue(parser, Long.class);
+    }
+
+    private static Double doubleValue(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.hasToken(JsonToken.VALUE_NUMBER_FLOAT) || parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            return parser.getDoubleValue();
+        }
+        return parser.hasToken(JsonToken.VALUE_NULL) ? null : context.readValue(parser, Double.class);
+    }
+
+    private static <T> T object(JsonParser parser, DeserializationContext context, StdDeserializer<T> deserializer)
+            throws IOException {
+        return parser.hasToken(JsonToken.VALUE_NULL) ? null : deserializer.deserialize(parser, context);
+    }
+}
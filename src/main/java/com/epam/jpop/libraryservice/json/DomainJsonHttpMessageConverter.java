@@ -0,0 +1,79 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/*JSON converter of the domain types, ahead of the default Jackson converter which keeps every other type.
+ * Bodies are written through the pooled buffers of the codec, with a Content-Length instead of chunks.
+ */
+public class DomainJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final JsonCodec codec;
+
+    public DomainJsonHttpMessageConverter(JsonCodec codec) {
+        super(new MediaType("application", "json", StandardCharsets.UTF_8),
+                new MediaType("application", "*+json", StandardCharsets.UTF_8));
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return codec.supports(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return codec.supports(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        // handlers declaring ResponseEntity<Object> only tell the type by the value
+        return (codec.supports(clazz) || type != null && codec.supports(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean canRead(@Nullable MediaType mediaType) {
+        return super.canRead(mediaType) && isUtf8(mediaType);
+    }
+
+    @Override
+    protected boolean canWrite(@Nullable MediaType mediaType) {
+        return super.canWrite(mediaType) && isUtf8(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        try {
+            return codec.decode(inputMessage.getBody(), type);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        codec.write(value, outputMessage);
+    }
+
+    private static boolean isUtf8(@Nullable MediaType mediaType) {
+        return mediaType == null || mediaType.getCharset() == null
+                || StandardCharsets.UTF_8.equals(mediaType.getCharset());
+    }
+}
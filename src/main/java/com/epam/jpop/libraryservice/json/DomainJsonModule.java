@@ -0,0 +1,35 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.Result;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import static com.epam.jpop.libraryservice.json.DomainDeserializers.*;
+import static com.epam.jpop.libraryservice.json.DomainSerializers.*;
+
+/*Registers the hand-written serializers and deserializers of the domain types with a mapper*/
+public class DomainJsonModule extends SimpleModule {
+
+    public DomainJsonModule() {
+        super("library-domain");
+        addSerializer(Book.class, BOOK_SERIALIZER);
+        addSerializer(User.class, USER_SERIALIZER);
+        addSerializer(Author.class, AUTHOR_SERIALIZER);
+        addSerializer(Category.class, CATEGORY_SERIALIZER);
+        addSerializer(Publisher.class, PUBLISHER_SERIALIZER);
+        addSerializer(Result.class, RESULT_SERIALIZER);
+        addSerializer(AcceptedResult.class, ACCEPTED_RESULT_SERIALIZER);
+        addDeserializer(Book.class, BOOK_DESERIALIZER);
+        addDeserializer(User.class, USER_DESERIALIZER);
+        addDeserializer(Author.class, AUTHOR_DESERIALIZER);
+        addDeserializer(Category.class, CATEGORY_DESERIALIZER);
+        addDeserializer(Publisher.class, PUBLISHER_DESERIALIZER);
+        addDeserializer(Result.class, RESULT_DESERIALIZER);
+        addDeserializer(AcceptedResult.class, ACCEPTED_RESULT_DESERIALIZER);
+    }
+}
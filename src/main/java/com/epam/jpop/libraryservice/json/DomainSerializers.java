@@ -0,0 +1,200 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.Result;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.sql.Date;
+
+/*Serializers of the domain types written field by field.
+ * Field names are encoded to UTF-8 once, when the class is loaded, and written as raw bytes. The output is
+ * the same as reflective binding with the mapper Spring Boot configures: properties in declaration order,
+ * nulls included unless the mapper excludes them, and dates as ISO strings unless it writes timestamps.
+ */
+final class DomainSerializers {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString AUTHOR = new SerializedString("author");
+    private static final SerializableString CATEGORY = new SerializedString("category");
+    private static final SerializableString ISBN = new SerializedString("isbn");
+    private static final SerializableString PUBLISHER = new SerializedString("publisher");
+    private static final SerializableString PUBLISHED_DATE = new SerializedString("publishedDate");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString CODE = new SerializedString("code");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializableString DESC = new SerializedString("desc");
+    private static final SerializableString ROLE = new SerializedString("role");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString TRACKING_ID = new SerializedString("trackingId");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    static final StdSerializer<Author> AUTHOR_SERIALIZER = new DomainSerializer<Author>(Author.class) {
+        @Override
+        void writeFields(Author author, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            string(generator, skipNulls, CODE, author.getCode());
+            string(generator, skipNulls, NAME, author.getName());
+            string(generator, skipNulls, ADDRESS, author.getAddress());
+            string(generator, skipNulls, PHONE_NUMBER, author.getPhoneNumber());
+        }
+    };
+
+    static final StdSerializer<Category> CATEGORY_SERIALIZER = new DomainSerializer<Category>(Category.class) {
+        @Override
+        void writeFields(Category category, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            string(generator, skipNulls, CODE, category.getCode());
+            string(generator, skipNulls, NAME, category.getName());
+            string(generator, skipNulls, DESC, category.getDesc());
+        }
+    };
+
+    static final StdSerializer<Publisher> PUBLISHER_SERIALIZER = new DomainSerializer<Publisher>(Publisher.class) {
+        @Override
+        void writeFields(Publisher publisher, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            string(generator, skipNulls, CODE, publisher.getCode());
+            string(generator, skipNulls, NAME, publisher.getName());
+            string(generator, skipNulls, DESC, publisher.getDesc());
+        }
+    };
+
+    static final StdSerializer<Book> BOOK_SERIALIZER = new DomainSerializer<Book>(Book.class) {
+        @Override
+        void writeFields(Book book, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            number(generator, skipNulls, ID, book.getId());
+            string(generator, skipNulls, TITLE, book.getTitle());
+            object(generator, provider, skipNulls, AUTHOR, book.getAuthor(), AUTHOR_SERIALIZER);
+            object(generator, provider, skipNulls, CATEGORY, book.getCategory(), CATEGORY_SERIALIZER);
+            number(generator, skipNulls, ISBN, book.getIsbn());
+            object(generator, provider, skipNulls, PUBLISHER, book.getPublisher(), PUBLISHER_SERIALIZER);
+            date(generator, provider, skipNulls, PUBLISHED_DATE, book.getPublishedDate());
+            number(generator, skipNulls, PRICE, book.getPrice());
+        }
+    };
+
+    static final StdSerializer<User> USER_SERIALIZER = new DomainSerializer<User>(User.class) {
+        @Override
+        void writeFields(User user, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            number(generator, skipNulls, ID, user.getId());
+            string(generator, skipNulls, NAME, user.getName());
+            string(generator, skipNulls, ROLE, user.getRole());
+            string(generator, skipNulls, EMAIL, user.getEmail());
+            string(generator, skipNulls, PHONE_NUMBER, user.getPhoneNumber());
+        }
+    };
+
+    static final StdSerializer<Result> RESULT_SERIALIZER = new DomainSerializer<Result>(Result.class) {
+        @Override
+        void writeFields(Result result, JsonGenerator generator, SerializerProvider provider,
+                         boolean skipNulls) throws IOException {
+            number(generator, skipNulls, ID, result.getId());
+        }
+    };
+
+    static final StdSerializer<AcceptedResult> ACCEPTED_RESULT_SERIALIZER =
+            new DomainSerializer<AcceptedResult>(AcceptedResult.class) {
+                @Override
+                void writeFields(AcceptedResult result, JsonGenerator generator, SerializerProvider provider,
+                                 boolean skipNulls) throws IOException {
+                    number(generator, skipNulls, ID, result.getId());
+                    string(generator, skipNulls, TRACKING_ID, result.getTrackingId());
+                    string(generator, skipNulls, STATUS,
+                            result.getStatus() == null ? null : result.getStatus().name());
+                }
+            };
+
+    private DomainSerializers() {
+    }
+
+    private abstract static class DomainSerializer<T> extends StdSerializer<T> {
+
+        private DomainSerializer(Class<T> type) {
+            super(type);
+        }
+
+        abstract void writeFields(T value, JsonGenerator generator, SerializerProvider provider, boolean skipNulls)
+                throws IOException;
+
+        @Override
+        public void serialize(T value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion(handledType())
+                    .getValueInclusion();
+            generator.writeStartObject(value);
+            writeFields(value, generator, provider,
+                    inclusion != JsonInclude.Include.ALWAYS && inclusion != JsonInclude.Include.USE_DEFAULTS);
+            generator.writeEndObject();
+        }
+    }
+
+    private static void string(JsonGenerator generator, boolean skipNulls, SerializableString name, String value)
+            throws IOException {
+        if (name(generator, skipNulls, name, value)) {
+            generator.writeString(value);
+        }
+    }
+
+    private static void number(JsonGenerator generator, boolean skipNulls, SerializableString name, Long value)
+            throws IOException {
+        if (name(generator, skipNulls, name, value)) {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void number(JsonGenerator generator, boolean skipNulls, SerializableString name, Double value)
+            throws IOException {
+        if (name(generator, skipNulls, name, value)) {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void date(JsonGenerator generator, SerializerProvider provider, boolean skipNulls,
+                             SerializableString name, Date value) throws IOException {
+        if (!name(generator, skipNulls, name, value)) {
+            return;
+        }
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            generator.writeNumber(value.getTime());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static <T> void object(JsonGenerator generator, SerializerProvider provider, boolean skipNulls,
+                                   SerializableString name, T value, StdSerializer<T> serializer) throws IOException {
+        if (name(generator, skipNulls, name, value)) {
+            serializer.serialize(value, generator, provider);
+        }
+    }
+
+    /*Writes the field name, or a null value in its place, and tells whether the value is left to write*/
+    private static boolean name(JsonGenerator generator, boolean skipNulls, SerializableString name, Object value)
+            throws IOException {
+        if (value == null) {
+            if (!skipNulls) {
+                generator.writeFieldName(name);
+                generator.writeNull();
+            }
+            return false;
+        }
+        generator.writeFieldName(name);
+        return true;
+    }
+}
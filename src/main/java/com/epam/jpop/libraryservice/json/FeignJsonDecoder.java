@@ -0,0 +1,34 @@
+package com.epam.jpop.libraryservice.json;
+
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/*Feign decoder reading the domain types with the codec, any other type is left to Spring's decoder*/
+public class FeignJsonDecoder implements Decoder {
+
+    private final JsonCodec codec;
+    private final Decoder delegate;
+
+    public FeignJsonDecoder(JsonCodec codec, Decoder delegate) {
+        this.codec = codec;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (!codec.supports(type)) {
+            return delegate.decode(response, type);
+        }
+        if (response.status() == 204 || response.body() == null) {
+            return Util.emptyValueOf(type);
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return codec.decode(body, type);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.epam.jpop.libraryservice.json;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/*Feign encoder writing the domain types with the codec, straight into the request body.
+ * Spring's encoder would look up a converter for every request and copy the body out of a fresh stream;
+ * any other body is still left to it.
+ */
+public class FeignJsonEncoder implements Encoder {
+
+    private final JsonCodec codec;
+    private final Encoder delegate;
+
+    public FeignJsonEncoder(JsonCodec codec, Encoder delegate) {
+        this.codec = codec;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) {
+        if (object == null || !codec.supports(object.getClass()) && !codec.supports(bodyType)) {
+            delegate.encode(object, bodyType, template);
+            return;
+        }
+        try {
+            if (!template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                template.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_UTF8_VALUE);
+            }
+            template.body(Request.Body.encoded(codec.encode(object), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new EncodeException("Could not write the request body of type " + bodyType, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.epam.jpop.libraryservice.json;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*Lock-free pool of the buffers responses and request bodies are encoded into.
+ * Buffers sit in a fixed array of slots that are emptied and filled with compare-and-set, starting from a
+ * random slot so that concurrent threads rarely contend on the same one. A buffer keeps the capacity it
+ * grew to, so that once warm an encoding allocates nothing but its result; buffers grown beyond the bound
+ * are left to the garbage collector. Unlike thread-local buffers this also works for virtual threads,
+ * which never serve a second request.
+ */
+public class JsonBufferPool {
+
+    private final AtomicReferenceArray<Buffer> slots;
+    private final int maxBufferSize;
+    private final int initialBufferSize;
+
+    public JsonBufferPool(int size, int maxBufferSize, int initialBufferSize) {
+        this.slots = new AtomicReferenceArray<>(size);
+        this.maxBufferSize = maxBufferSize;
+        this.initialBufferSize = initialBufferSize;
+    }
+
+    public Buffer acquire() {
+        int size = slots.length();
+        int start = size == 0 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (start + i) % size;
+            if (slots.get(slot) != null) {
+                Buffer buffer = slots.getAndSet(slot, null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+        }
+        return new Buffer(initialBufferSize);
+    }
+
+    /*Largest body a pooled buffer is meant to hold*/
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    public void release(Buffer buffer) {
+        if (buffer.capacity() > maxBufferSize) {
+            return;
+        }
+        buffer.reset();
+        int size = slots.length();
+        int start = size == 0 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            if (slots.compareAndSet((start + i) % size, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    public static class Buffer extends ByteArrayOutputStream {
+
+        private Buffer(int size) {
+            super(size);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
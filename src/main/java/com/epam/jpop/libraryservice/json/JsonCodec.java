@@ -0,0 +1,159 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.Result;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*Encoding and decoding of the domain types, and of collections of them, for the MVC converters and Feign.
+ * A single entity is written into a pooled buffer rather than a fresh stream, so that its length is known
+ * before the body is sent and a warm instance encodes without allocating anything but its result. Listings,
+ * and any entity that outgrows a pooled buffer, are streamed to the body instead, chunked, so that a large
+ * response is never held in memory as a whole.
+ */
+public class JsonCodec {
+
+    private static final List<Class<?>> DOMAIN_TYPES = Arrays.asList(
+            Book.class, User.class, Result.class, Author.class, Category.class, Publisher.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamingWriter;
+    private final JsonBufferPool buffers;
+
+    /*Answers of supports by declared type, there are only as many as there are handler and client signatures*/
+    private final Map<Type, Boolean> supported = new ConcurrentHashMap<>();
+
+    public JsonCodec(ObjectMapper objectMapper, JsonBufferPool buffers) {
+        this.objectMapper = objectMapper;
+        // the body belongs to the message, it is closed by whoever completes the response
+        this.streamingWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.buffers = buffers;
+    }
+
+    /*Whether the type is a domain type, a collection or an array of them*/
+    public boolean supports(Type type) {
+        Boolean answer = supported.get(type);
+        if (answer == null) {
+            answer = resolve(type);
+            supported.put(type, answer);
+        }
+        return answer;
+    }
+
+    private static boolean resolve(Type type) {
+        ResolvableType resolvable = ResolvableType.forType(type);
+        if (resolvable.isArray()) {
+            return isDomainType(resolvable.getComponentType().resolve());
+        }
+        Class<?> raw = resolvable.resolve();
+        if (raw != null && Collection.class.isAssignableFrom(raw)) {
+            return isDomainType(resolvable.asCollection().resolveGeneric());
+        }
+        return isDomainType(raw);
+    }
+
+    public byte[] encode(Object value) throws IOException {
+        JsonBufferPool.Buffer buffer = buffers.acquire();
+        try {
+            objectMapper.writeValue(buffer, value);
+            return buffer.toByteArray();
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    /*Writes the value as the body of the message, with its length when it fits a pooled buffer*/
+    public void write(Object value, HttpOutputMessage message) throws IOException {
+        if (value instanceof Collection || value != null && value.getClass().isArray()) {
+            streamingWriter.writeValue(message.getBody(), value);
+            return;
+        }
+        JsonBufferPool.Buffer buffer = buffers.acquire();
+        try {
+            SpillingOutputStream out = new SpillingOutputStream(buffer, buffers.getMaxBufferSize(), message);
+            streamingWriter.writeValue(out, value);
+            if (!out.spilled) {
+                message.getHeaders().setContentLength(buffer.size());
+                buffer.writeTo(message.getBody());
+            }
+        } finally {
+            buffers.release(buffer);
+        }
+    }
+
+    public <T> T decode(InputStream in, Type type) throws IOException {
+        return objectMapper.readValue(in, objectMapper.constructType(type));
+    }
+
+    /*Collects the output in the buffer up to its limit, and past it sends what it has and streams the rest*/
+    private static class SpillingOutputStream extends OutputStream {
+
+        private final JsonBufferPool.Buffer buffer;
+        private final int limit;
+        private final HttpOutputMessage message;
+
+        private OutputStream body;
+        private boolean spilled;
+
+        private SpillingOutputStream(JsonBufferPool.Buffer buffer, int limit, HttpOutputMessage message) {
+            this.buffer = buffer;
+            this.limit = limit;
+            this.message = message;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target(1).write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            target(length).write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (spilled) {
+                body.flush();
+            }
+        }
+
+        private OutputStream target(int length) throws IOException {
+            if (!spilled && buffer.size() + length > limit) {
+                spilled = true;
+                body = message.getBody();
+                buffer.writeTo(body);
+            }
+            return spilled ? body : buffer;
+        }
+    }
+
+    private static boolean isDomainType(Class<?> type) {
+        if (type == null) {
+            return false;
+        }
+        for (Class<?> domainType : DOMAIN_TYPES) {
+            if (domainType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
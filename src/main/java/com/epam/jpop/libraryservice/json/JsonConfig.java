@@ -0,0 +1,54 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*Plugs the codec of the domain types into the mapper Spring Boot builds, the MVC converters and Feign.
+ * The module is picked up by the auto-configured ObjectMapper, so the WebClient codecs and the default
+ * converter bind the domain types with it as well. The Feign encoder and decoder replace the defaults of
+ * every client and keep them as delegates for the other types.
+ */
+@Configuration
+@EnableConfigurationProperties(JsonProperties.class)
+@ConditionalOnProperty(prefix = "library.json", name = "enabled", matchIfMissing = true)
+public class JsonConfig {
+
+    @Bean
+    public Module domainJsonModule() {
+        return new DomainJsonModule();
+    }
+
+    @Bean
+    public JsonCodec jsonCodec(ObjectMapper objectMapper, JsonProperties properties) {
+        return new JsonCodec(objectMapper, new JsonBufferPool(properties.getPooledBuffers(),
+                properties.getMaxPooledBufferSize(), properties.getInitialBufferSize()));
+    }
+
+    @Bean
+    public DomainJsonHttpMessageConverter domainJsonHttpMessageConverter(JsonCodec jsonCodec) {
+        return new DomainJsonHttpMessageConverter(jsonCodec);
+    }
+
+    @Bean
+    public Encoder feignEncoder(JsonCodec jsonCodec, ObjectFactory<HttpMessageConverters> messageConverters) {
+        return new FeignJsonEncoder(jsonCodec, new SpringEncoder(messageConverters));
+    }
+
+    @Bean
+    public Decoder feignDecoder(JsonCodec jsonCodec, ObjectFactory<HttpMessageConverters> messageConverters) {
+        return new FeignJsonDecoder(jsonCodec,
+                new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters))));
+    }
+}
@@ -0,0 +1,21 @@
+package com.epam.jpop.libraryservice.json;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.json")
+public class JsonProperties {
+
+    /*Bind the domain types with the hand-written serializers and the pooled buffers instead of reflective binding*/
+    private boolean enabled = true;
+
+    /*Output buffers kept for reuse, at most one per request encoding at the same time*/
+    private int pooledBuffers = 64;
+
+    /*Buffers grown beyond this many bytes by a large response are dropped rather than pooled*/
+    private int maxPooledBufferSize = 256 * 1024;
+
+    /*Size of a new buffer, enough for a page of books without growing*/
+    private int initialBufferSize = 8 * 1024;
+}
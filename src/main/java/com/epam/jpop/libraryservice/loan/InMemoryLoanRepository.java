@@ -0,0 +1,99 @@
+package com.epam.jpop.libraryservice.loan;
+
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.LoanStatus;
+import com.epam.jpop.libraryservice.domain.Reservation;
+import com.epam.jpop.libraryservice.domain.ReservationStatus;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*Keeps loans and reservations in concurrent maps, everything is lost on restart*/
+public class InMemoryLoanRepository implements LoanRepository {
+
+    private final AtomicLong loanIds = new AtomicLong();
+    private final AtomicLong reservationIds = new AtomicLong();
+
+    private final ConcurrentMap<Long, Loan> loans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> loansByUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> copies = new ConcurrentHashMap<>();
+
+    @Override
+    public Loan insert(Loan loan) {
+        Loan stored = loan.toBuilder().id(loanIds.incrementAndGet()).build();
+        loans.put(stored.getId(), stored);
+        loansByUser.computeIfAbsent(stored.getUserId(), user -> ConcurrentHashMap.newKeySet()).add(stored.getId());
+        return stored;
+    }
+
+    @Override
+    public boolean replace(Loan expected, Loan updated) {
+        return loans.replace(expected.getId(), expected, updated);
+    }
+
+    @Override
+    public Optional<Loan> findLoan(Long id) {
+        return Optional.ofNullable(loans.get(id));
+    }
+
+    @Override
+    public List<Loan> findLoansByUser(Long userId) {
+        return loansByUser.getOrDefault(userId, ConcurrentHashMap.newKeySet()).stream()
+                .map(loans::get)
+                .sorted(Comparator.comparing(Loan::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int countActiveLoans(Long bookId) {
+        return (int) loans.values().stream()
+                .filter(loan -> loan.getBookId().equals(bookId) && loan.getStatus() == LoanStatus.ACTIVE)
+                .count();
+    }
+
+    @Override
+    public Reservation insert(Reservation reservation) {
+        Reservation stored = reservation.toBuilder().id(reservationIds.incrementAndGet()).build();
+        reservations.put(stored.getId(), stored);
+        return stored;
+    }
+
+    @Override
+    public boolean replace(Reservation expected, Reservation updated) {
+        return reservations.replace(expected.getId(), expected, updated);
+    }
+
+    @Override
+    public Optional<Reservation> findReservation(Long id) {
+        return Optional.ofNullable(reservations.get(id));
+    }
+
+    @Override
+    public List<Reservation> findOpenReservations(Long bookId) {
+        return reservations.values().stream()
+                .filter(reservation -> reservation.getBookId().equals(bookId))
+                .filter(reservation -> reservation.getStatus() == ReservationStatus.WAITING
+                        || reservation.getStatus() == ReservationStatus.READY)
+                .sorted(Comparator.comparing(Reservation::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public OptionalInt findCopies(Long bookId) {
+        Integer count = copies.get(bookId);
+        return count == null ? OptionalInt.empty() : OptionalInt.of(count);
+    }
+
+    @Override
+    public void saveCopies(Long bookId, int count) {
+        copies.put(bookId, count);
+    }
+}
@@ -0,0 +1,24 @@
+package com.epam.jpop.libraryservice.loan;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(LoanProperties.class)
+public class LoanConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LoanRepository loanRepository() {
+        return new InMemoryLoanRepository();
+    }
+
+    @Bean
+    public LoanService loanService(LoanRepository loanRepository, LoanProperties properties) {
+        return new LoanService(loanRepository, properties, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,20 @@
+package com.epam.jpop.libraryservice.loan;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.loans")
+public class LoanProperties {
+
+    /*Copies of a book available for loan until an inventory is set for it*/
+    private int defaultCopies = 1;
+
+    /*How long a book is lent for, and how much a renewal extends the loan*/
+    private Duration loanPeriod = Duration.ofDays(21);
+
+    /*Renewals allowed per loan, none are allowed while other users are waiting for the book*/
+    private int maxRenewals = 2;
+}
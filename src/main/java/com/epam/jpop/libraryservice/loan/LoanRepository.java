@@ -0,0 +1,41 @@
+package com.epam.jpop.libraryservice.loan;
+
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.Reservation;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/*Persistence of loans, reservations and the number of copies per book.
+ * State transitions go through the replace methods, which must only succeed while the stored value is
+ * still equal to the expected one, so that two concurrent returns of the same loan cannot both win.
+ * The in-memory implementation is used unless another bean of this type is defined.
+ */
+public interface LoanRepository {
+
+    /*Stores a new loan and assigns its id*/
+    Loan insert(Loan loan);
+
+    boolean replace(Loan expected, Loan updated);
+
+    Optional<Loan> findLoan(Long id);
+
+    List<Loan> findLoansByUser(Long userId);
+
+    int countActiveLoans(Long bookId);
+
+    /*Stores a new reservation and assigns its id*/
+    Reservation insert(Reservation reservation);
+
+    boolean replace(Reservation expected, Reservation updated);
+
+    Optional<Reservation> findReservation(Long id);
+
+    /*Reservations of the book that are waiting or ready, in the order they were made*/
+    List<Reservation> findOpenReservations(Long bookId);
+
+    OptionalInt findCopies(Long bookId);
+
+    void saveCopies(Long bookId, int copies);
+}
@@ -0,0 +1,246 @@
+package com.epam.jpop.libraryservice.loan;
+
+import com.epam.jpop.libraryservice.domain.Availability;
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.LoanStatus;
+import com.epam.jpop.libraryservice.domain.Reservation;
+import com.epam.jpop.libraryservice.domain.ReservationStatus;
+import com.epam.jpop.libraryservice.exception.LoanConflictException;
+import com.epam.jpop.libraryservice.exception.LoanNotFoundException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Checkout, return and renewal of books, with a reservation queue per book.
+ * Every book has its own availability counter, taken with a compare-and-set loop, so concurrent
+ * checkouts of one title never oversell it and checkouts of different titles never contend. A returned
+ * copy goes to the head of the reservation queue before anyone else, and is held for that user until
+ * they check it out or cancel. Counters and queues are rebuilt from the repository the first time a book
+ * is touched after a restart.
+ */
+public class LoanService {
+
+    private final LoanRepository repository;
+    private final LoanProperties properties;
+    private final Clock clock;
+
+    private final ConcurrentMap<Long, Inventory> inventories = new ConcurrentHashMap<>();
+
+    public LoanService(LoanRepository repository, LoanProperties properties, Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public Loan checkout(Long bookId, Long userId) {
+        Inventory inventory = inventory(bookId);
+        Reservation held = inventory.ready.remove(userId);
+        if (held != null) {
+            repository.replace(held, held.toBuilder().status(ReservationStatus.FULFILLED).build());
+            inventory.reservers.remove(userId);
+        } else if (!inventory.waiting.isEmpty() || !inventory.tryAcquire()) {
+            // a free copy is on its way to the reservation queue, walk-ins come after it
+            throw new LoanConflictException("No copy of the book is available, reserve it instead: " + bookId);
+        }
+        Instant now = clock.instant();
+        try {
+            return repository.insert(Loan.builder()
+                    .bookId(bookId)
+                    .userId(userId)
+                    .status(LoanStatus.ACTIVE)
+                    .checkedOutAt(now)
+                    .dueAt(now.plus(properties.getLoanPeriod()))
+                    .build());
+        } catch (RuntimeException e) {
+            release(inventory);
+            throw e;
+        }
+    }
+
+    public Loan returnLoan(Long loanId) {
+        while (true) {
+            Loan loan = getLoan(loanId);
+            if (loan.getStatus() != LoanStatus.ACTIVE) {
+                throw new LoanConflictException("The loan has already been returned: " + loanId);
+            }
+            Loan returned = loan.toBuilder().status(LoanStatus.RETURNED).returnedAt(clock.instant()).build();
+            if (repository.replace(loan, returned)) {
+                release(inventory(loan.getBookId()));
+                return returned;
+            }
+        }
+    }
+
+    public Loan renew(Long loanId) {
+        while (true) {
+            Loan loan = getLoan(loanId);
+            if (loan.getStatus() != LoanStatus.ACTIVE) {
+                throw new LoanConflictException("Only an active loan can be renewed: " + loanId);
+            }
+            if (loan.getRenewals() >= properties.getMaxRenewals()) {
+                throw new LoanConflictException("The loan has reached the maximum number of renewals: " + loanId);
+            }
+            if (!inventory(loan.getBookId()).waiting.isEmpty()) {
+                throw new LoanConflictException("Other users are waiting for the book: " + loan.getBookId());
+            }
+            Loan renewed = loan.toBuilder()
+                    .dueAt(loan.getDueAt().plus(properties.getLoanPeriod()))
+                    .renewals(loan.getRenewals() + 1)
+                    .build();
+            if (repository.replace(loan, renewed)) {
+                return renewed;
+            }
+        }
+    }
+
+    public Loan getLoan(Long loanId) {
+        return repository.findLoan(loanId)
+                .orElseThrow(() -> new LoanNotFoundException("Unable to find the loan: " + loanId));
+    }
+
+    public List<Loan> getLoans(Long userId) {
+        return repository.findLoansByUser(userId);
+    }
+
+    /*Queues the user for the book, the reservation is READY at once when a copy is free*/
+    public Reservation reserve(Long bookId, Long userId) {
+        Inventory inventory = inventory(bookId);
+        if (!inventory.reservers.add(userId)) {
+            throw new LoanConflictException("The user has already reserved the book: " + bookId);
+        }
+        Reservation reservation = repository.insert(Reservation.builder()
+                .bookId(bookId)
+                .userId(userId)
+                .status(ReservationStatus.WAITING)
+                .reservedAt(clock.instant())
+                .build());
+        inventory.waiting.add(reservation);
+        promote(inventory);
+        return repository.findReservation(reservation.getId()).orElse(reservation);
+    }
+
+    public Reservation cancelReservation(Long reservationId) {
+        Reservation reservation = repository.findReservation(reservationId)
+                .orElseThrow(() -> new LoanNotFoundException("Unable to find the reservation: " + reservationId));
+        Inventory inventory = inventory(reservation.getBookId());
+        Reservation cancelled = reservation.toBuilder().status(ReservationStatus.CANCELLED).build();
+        if (reservation.getStatus() == ReservationStatus.WAITING && inventory.waiting.remove(reservation)) {
+            repository.replace(reservation, cancelled);
+        } else if (reservation.getStatus() == ReservationStatus.READY
+                && inventory.ready.remove(reservation.getUserId(), reservation)) {
+            repository.replace(reservation, cancelled);
+            release(inventory);
+        } else {
+            throw new LoanConflictException("The reservation is no longer open: " + reservationId);
+        }
+        inventory.reservers.remove(reservation.getUserId());
+        return cancelled;
+    }
+
+    public Availability getAvailability(Long bookId) {
+        Inventory inventory = inventory(bookId);
+        return new Availability(bookId, inventory.copies, Math.max(inventory.available.get(), 0),
+                inventory.ready.size(), inventory.waiting.size());
+    }
+
+    /*Changes the number of copies owned, lowering it below the lent copies blocks checkouts until returns*/
+    public Availability setCopies(Long bookId, int copies) {
+        if (copies < 0) {
+            throw new LoanConflictException("The number of copies cannot be negative: " + copies);
+        }
+        Inventory inventory = inventory(bookId);
+        synchronized (inventory) {
+            repository.saveCopies(bookId, copies);
+            inventory.available.addAndGet(copies - inventory.copies);
+            inventory.copies = copies;
+        }
+        promote(inventory);
+        return getAvailability(bookId);
+    }
+
+    private Inventory inventory(Long bookId) {
+        return inventories.computeIfAbsent(bookId, this::load);
+    }
+
+    private Inventory load(Long bookId) {
+        Inventory inventory = new Inventory(repository.findCopies(bookId).orElse(properties.getDefaultCopies()));
+        int held = 0;
+        for (Reservation reservation : repository.findOpenReservations(bookId)) {
+            inventory.reservers.add(reservation.getUserId());
+            if (reservation.getStatus() == ReservationStatus.READY) {
+                inventory.ready.put(reservation.getUserId(), reservation);
+                held++;
+            } else {
+                inventory.waiting.add(reservation);
+            }
+        }
+        inventory.available.set(inventory.copies - repository.countActiveLoans(bookId) - held);
+        return inventory;
+    }
+
+    /*A freed copy goes straight to the head of the queue, it only becomes available when nobody is waiting*/
+    private void release(Inventory inventory) {
+        Reservation next = inventory.waiting.poll();
+        if (next != null) {
+            hold(inventory, next);
+            return;
+        }
+        inventory.available.incrementAndGet();
+        // a reservation queued since the poll found no copy, it takes this one
+        promote(inventory);
+    }
+
+    /*Hands free copies to the head of the queue, whoever frees or queues last does the hand over*/
+    private void promote(Inventory inventory) {
+        while (!inventory.waiting.isEmpty() && inventory.tryAcquire()) {
+            Reservation next = inventory.waiting.poll();
+            if (next == null) {
+                // the queue was emptied by a cancellation in the meantime
+                inventory.available.incrementAndGet();
+                continue;
+            }
+            hold(inventory, next);
+        }
+    }
+
+    private void hold(Inventory inventory, Reservation next) {
+        Reservation ready = next.toBuilder().status(ReservationStatus.READY).readyAt(clock.instant()).build();
+        repository.replace(next, ready);
+        inventory.ready.put(next.getUserId(), ready);
+    }
+
+    private static class Inventory {
+
+        private volatile int copies;
+
+        /*Copies neither lent nor held for a reservation, may drop below zero when copies are withdrawn*/
+        private final AtomicInteger available = new AtomicInteger();
+
+        private final Queue<Reservation> waiting = new ConcurrentLinkedQueue<>();
+        private final ConcurrentMap<Long, Reservation> ready = new ConcurrentHashMap<>();
+        private final Set<Long> reservers = ConcurrentHashMap.newKeySet();
+
+        private Inventory(int copies) {
+            this.copies = copies;
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = available.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (available.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    public ConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connections currently handed out to requests")
+                .register(registry);
+        Gauge.builder("library.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requests waiting for a connection")
+                .register(registry);
+        Gauge.builder("library.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Idle connections ready for reuse")
+                .register(registry);
+        Gauge.builder("library.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Upper bound of pooled connections")
+                .register(registry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*Records the latency and outcome of every call made to book-service and user-service.
+ * Calls are tagged with the logical service name, so the transports must report them
+ * before the load balancer has replaced it with an instance address.
+ */
+@Component
+public class DownstreamMetrics {
+
+    static final String REQUESTS = "library.downstream.requests";
+    static final String TIMEOUTS = "library.downstream.timeouts";
+    static final String ERRORS = "library.downstream.errors";
+
+    private final MeterRegistry registry;
+    // the set of services, methods and outcomes is small, so the meters are looked up here instead of being
+    // built and registered again on every call
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DownstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordResponse(URI uri, String method, int status, long startNanos) {
+        timer(uri, method, String.valueOf(status)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (status >= 500) {
+            counter(ERRORS, uri, method, "SERVER_ERROR").increment();
+        }
+    }
+
+    public void recordFailure(URI uri, String method, Throwable failure, long startNanos) {
+        boolean timeout = isTimeout(failure);
+        String outcome = timeout ? "TIMEOUT" : "IO_ERROR";
+        timer(uri, method, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (timeout) {
+            counter(TIMEOUTS, uri, method, outcome).increment();
+        } else {
+            counter(ERRORS, uri, method, outcome).increment();
+        }
+    }
+
+    public void recordCancellation(URI uri, String method, long startNanos) {
+        timer(uri, method, "CANCELLED").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(URI uri, String method, String status) {
+        return timers.computeIfAbsent(new MeterKey(REQUESTS, service(uri), method, status),
+                key -> Timer.builder(REQUESTS)
+                        .description("Calls made to downstream services")
+                        .tags("service", key.service, "method", key.method, "status", key.outcome)
+                        .register(registry));
+    }
+
+    private Counter counter(String name, URI uri, String method, String outcome) {
+        return counters.computeIfAbsent(new MeterKey(name, service(uri), method, outcome),
+                key -> Counter.builder(key.name)
+                        .tags("service", key.service, "method", key.method, "outcome", key.outcome)
+                        .register(registry));
+    }
+
+    private static String service(URI uri) {
+        return uri.getHost() == null ? "none" : uri.getHost();
+    }
+
+    private static boolean isTimeout(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Data
+    private static class MeterKey {
+        private final String name;
+        private final String service;
+        private final String method;
+        private final String outcome;
+    }
+}
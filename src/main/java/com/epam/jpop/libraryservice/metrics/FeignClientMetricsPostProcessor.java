@@ -0,0 +1,25 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import feign.Client;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FeignClientMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<DownstreamMetrics> metrics;
+
+    public FeignClientMetricsPostProcessor(ObjectProvider<DownstreamMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof Client && !(bean instanceof MeteredFeignClient)) {
+            return new MeteredFeignClient((Client) bean, metrics.getObject());
+        }
+        return bean;
+    }
+}
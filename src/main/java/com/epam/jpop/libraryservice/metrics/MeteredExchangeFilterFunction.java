@@ -0,0 +1,33 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/*Has to be registered ahead of the load balancer filter, which rewrites the service name into an instance address*/
+@Component
+public class MeteredExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final DownstreamMetrics metrics;
+
+    @Autowired
+    public MeteredExchangeFilterFunction(DownstreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String method = request.method().name();
+            return next.exchange(request)
+                    .doOnNext(response -> metrics.recordResponse(request.url(), method, response.rawStatusCode(), start))
+                    .doOnError(e -> metrics.recordFailure(request.url(), method, e, start))
+                    .doOnCancel(() -> metrics.recordCancellation(request.url(), method, start));
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+
+/*Decorates the Feign client used by BookClient and UserClient, outside of the load balancing client*/
+public class MeteredFeignClient implements Client {
+
+    private final Client delegate;
+    private final DownstreamMetrics metrics;
+
+    public MeteredFeignClient(Client delegate, DownstreamMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        long start = System.nanoTime();
+        URI uri = URI.create(request.url());
+        String method = request.httpMethod().name();
+        try {
+            Response response = delegate.execute(request, options);
+            metrics.recordResponse(uri, method, response.status(), start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure(uri, method, e, start);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/*Has to run ahead of the load balancer interceptor, which rewrites the service name into an instance address*/
+@Component
+public class MeteredRestTemplateInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DownstreamMetrics metrics;
+
+    @Autowired
+    public MeteredRestTemplateInterceptor(DownstreamMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long start = System.nanoTime();
+        String method = request.getMethodValue();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            metrics.recordResponse(request.getURI(), method, response.getRawStatusCode(), start);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.recordFailure(request.getURI(), method, e, start);
+            throw e;
+        }
+    }
+}
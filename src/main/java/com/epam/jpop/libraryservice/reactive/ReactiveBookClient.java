@@ -0,0 +1,65 @@
+package com.epam.jpop.libraryservice.reactive;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.http.HttpClientProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+public class ReactiveBookClient {
+
+    private static final String BOOKS_URI = "http://book-service/api/books/";
+
+    private final WebClient webClient;
+    private final Duration readTimeout;
+
+    @Autowired
+    public ReactiveBookClient(@Qualifier("loadBalancedWebClient") WebClient webClient,
+                              HttpClientProperties properties) {
+        this.webClient = webClient;
+        this.readTimeout = properties.getReadTimeout();
+    }
+
+    public Flux<Book> getBooks() {
+        return webClient.get().uri(BOOKS_URI)
+                .retrieve()
+                .bodyToFlux(Book.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<Book> getBook(Long id) {
+        return webClient.get().uri(BOOKS_URI + "{id}", id)
+                .retrieve()
+                .bodyToMono(Book.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<Book> addBook(Book book) {
+        return webClient.post().uri(BOOKS_URI)
+                .syncBody(book)
+                .retrieve()
+                .bodyToMono(Book.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<Book> updateBook(Book book, Long id) {
+        return webClient.put().uri(BOOKS_URI + "{id}", id)
+                .syncBody(book)
+                .retrieve()
+                .bodyToMono(Book.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<Book> deleteBook(Long id) {
+        return webClient.delete().uri(BOOKS_URI + "{id}", id)
+                .retrieve()
+                .bodyToMono(Book.class)
+                .timeout(readTimeout);
+    }
+}
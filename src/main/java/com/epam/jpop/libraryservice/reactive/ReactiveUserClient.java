@@ -0,0 +1,65 @@
+package com.epam.jpop.libraryservice.reactive;
+
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.http.HttpClientProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+public class ReactiveUserClient {
+
+    private static final String USERS_URI = "http://user-service/api/users/";
+
+    private final WebClient webClient;
+    private final Duration readTimeout;
+
+    @Autowired
+    public ReactiveUserClient(@Qualifier("loadBalancedWebClient") WebClient webClient,
+                              HttpClientProperties properties) {
+        this.webClient = webClient;
+        this.readTimeout = properties.getReadTimeout();
+    }
+
+    public Flux<User> getUsers() {
+        return webClient.get().uri(USERS_URI)
+                .retrieve()
+                .bodyToFlux(User.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<User> getUser(Long id) {
+        return webClient.get().uri(USERS_URI + "{id}", id)
+                .retrieve()
+                .bodyToMono(User.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<User> addUser(User user) {
+        return webClient.post().uri(USERS_URI)
+                .syncBody(user)
+                .retrieve()
+                .bodyToMono(User.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<User> updateUser(User user, Long id) {
+        return webClient.put().uri(USERS_URI + "{id}", id)
+                .syncBody(user)
+                .retrieve()
+                .bodyToMono(User.class)
+                .timeout(readTimeout);
+    }
+
+    public Mono<User> deleteUser(Long id) {
+        return webClient.delete().uri(USERS_URI + "{id}", id)
+                .retrieve()
+                .bodyToMono(User.class)
+                .timeout(readTimeout);
+    }
+}
@@ -0,0 +1,43 @@
+package com.epam.jpop.libraryservice.reactive;
+
+import com.epam.jpop.libraryservice.http.HttpClientProperties;
+import com.epam.jpop.libraryservice.metrics.MeteredExchangeFilterFunction;
+import io.netty.channel.ChannelOption;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/*Non-blocking transport for the v3 endpoints.
+ * Requests run on the Reactor Netty event loop, so in-flight downstream calls do not hold a thread each.
+ * The load balancer filter is added explicitly, because a WebClient built while the context starts up
+ * would not yet carry the filter that @LoadBalanced builders receive once all singletons are created.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider reactiveConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.fixed("library-service", properties.getMaxConnections(),
+                properties.getConnectionRequestTimeout().toMillis());
+    }
+
+    @Bean
+    public WebClient loadBalancedWebClient(WebClient.Builder webClientBuilder,
+                                           LoadBalancerExchangeFilterFunction loadBalancerExchangeFilterFunction,
+                                           MeteredExchangeFilterFunction meteredExchangeFilterFunction,
+                                           ConnectionProvider reactiveConnectionProvider,
+                                           HttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(reactiveConnectionProvider)
+                .tcpConfiguration(tcpClient -> tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) properties.getConnectTimeout().toMillis()));
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(meteredExchangeFilterFunction)
+                .filter(loadBalancerExchangeFilterFunction)
+                .build();
+    }
+}
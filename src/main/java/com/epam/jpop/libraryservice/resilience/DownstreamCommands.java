@@ -0,0 +1,153 @@
+package com.epam.jpop.libraryservice.resilience;
+
+import com.epam.jpop.libraryservice.exception.DownstreamUnavailableException;
+import com.epam.jpop.libraryservice.threads.ThreadMode;
+import com.epam.jpop.libraryservice.threads.ThreadingProperties;
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import feign.FeignException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*Runs downstream calls as Hystrix commands.
+ * Each downstream service gets its own thread pool, so a slow user-service can only exhaust the
+ * user-service bulkhead and never the threads serving book calls. Each operation gets its own circuit
+ * breaker and timeout, configured under hystrix.command.<operation> and hystrix.threadpool.<service>.
+ * Client errors (4xx) are the caller's fault: they are rethrown unchanged and never trip a breaker.
+ * In the virtual thread mode the calls stay on the calling virtual thread and each service is bounded by a
+ * semaphore of its own instead, since parking a virtual thread is cheap and a second hop would only add
+ * latency. Hystrix keeps its semaphores per operation, so the bulkhead of a service is this one.
+ */
+@Component
+@EnableConfigurationProperties(ThreadingProperties.class)
+public class DownstreamCommands {
+
+    public static final String BOOK_SERVICE = "book-service";
+    public static final String USER_SERVICE = "user-service";
+
+    private final HystrixCommandProperties.Setter commandDefaults;
+
+    /*Bulkhead per service in the virtual thread mode, empty in the platform mode*/
+    private final ConcurrentMap<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final int maxConcurrentCalls;
+    private final boolean virtual;
+
+    @Autowired
+    public DownstreamCommands(ThreadingProperties properties) {
+        this.commandDefaults = HystrixCommandProperties.Setter();
+        this.maxConcurrentCalls = properties.getMaxConcurrentCalls();
+        this.virtual = properties.getMode() == ThreadMode.VIRTUAL;
+        if (virtual) {
+            commandDefaults
+                    .withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE)
+                    .withExecutionIsolationSemaphoreMaxConcurrentRequests(maxConcurrentCalls);
+        }
+    }
+
+    public <T> T execute(String service, String operation, Supplier<T> call) {
+        return execute(service, operation, call, value -> {
+        });
+    }
+
+    /*Runs the call like execute(service, operation, call), handing a value the caller is no longer waiting for
+     * to discard. A call that holds a resource, such as an open response, must not leak it when the command
+     * has already timed out and the value produced after that is dropped by Hystrix.
+     */
+    public <T> T execute(String service, String operation, Supplier<T> call, Consumer<? super T> discard) {
+        Semaphore bulkhead = virtual
+                ? bulkheads.computeIfAbsent(service, key -> new Semaphore(maxConcurrentCalls))
+                : null;
+        Command<T> command = new Command<>(service, operation, commandDefaults, bulkhead, call, discard);
+        try {
+            return command.execute();
+        } catch (HystrixBadRequestException e) {
+            throw (RuntimeException) e.getCause();
+        } catch (HystrixRuntimeException e) {
+            command.abandon();
+            throw new DownstreamUnavailableException(
+                    String.format("Call to %s failed (%s): %s", service, e.getFailureType(), operation), e);
+        }
+    }
+
+    public void run(String service, String operation, Runnable call) {
+        execute(service, operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    private static class Command<T> extends HystrixCommand<T> {
+
+        private final String service;
+        private final Semaphore bulkhead;
+        private final Supplier<T> call;
+        private final Consumer<? super T> discard;
+        private T produced;
+        private boolean abandoned;
+
+        private Command(String service, String operation, HystrixCommandProperties.Setter commandDefaults,
+                        Semaphore bulkhead, Supplier<T> call, Consumer<? super T> discard) {
+            super(Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey(service))
+                    .andCommandKey(HystrixCommandKey.Factory.asKey(operation))
+                    .andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey(service))
+                    .andCommandPropertiesDefaults(commandDefaults));
+            this.service = service;
+            this.bulkhead = bulkhead;
+            this.call = call;
+            this.discard = discard;
+        }
+
+        @Override
+        protected T run() {
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                throw new RejectedExecutionException("All the concurrent calls to " + service + " are in use");
+            }
+            T value;
+            try {
+                value = call.get();
+            } catch (HttpClientErrorException e) {
+                throw new HystrixBadRequestException(e.getMessage(), e);
+            } catch (FeignException e) {
+                if (e.status() >= 400 && e.status() < 500) {
+                    throw new HystrixBadRequestException(e.getMessage(), e);
+                }
+                throw e;
+            } finally {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+            synchronized (this) {
+                if (abandoned) {
+                    discard.accept(value);
+                    return null;
+                }
+                produced = value;
+            }
+            return value;
+        }
+
+        /*Called once the caller has given up, whichever of the two sides holds the value discards it*/
+        private synchronized void abandon() {
+            abandoned = true;
+            if (produced != null) {
+                discard.accept(produced);
+                produced = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.epam.jpop.libraryservice.startup;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*Deferred initialization of the parts of the context that are only needed once requests arrive.
+ * Each Feign client builds its own child context with a Ribbon load balancer, encoder and decoder, and
+ * Springfox scans every handler method to build the API documentation; neither is needed for the instance
+ * to start listening. The injection points of the Feign clients are @Lazy, so marking the client
+ * definitions lazy is enough to create them on their first call.
+ */
+@Configuration
+@EnableConfigurationProperties(StartupProperties.class)
+public class StartupConfig {
+
+    /*Package-private in Spring Cloud OpenFeign, so it is matched by name*/
+    private static final String FEIGN_CLIENT_FACTORY_BEAN = "org.springframework.cloud.openfeign.FeignClientFactoryBean";
+
+    private static final String[] SWAGGER_PATHS = {"/v2/api-docs", "/swagger-resources/*", "/swagger-ui.html"};
+
+    @Bean
+    @ConditionalOnProperty(name = "library.startup.lazy-clients", havingValue = "true")
+    public static BeanFactoryPostProcessor lazyFeignClients() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (FEIGN_CLIENT_FACTORY_BEAN.equals(definition.getBeanClassName())) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    /*Builds the API documentation on the first request for it, when Springfox is told not to at startup*/
+    @Bean
+    @ConditionalOnProperty(name = "springfox.documentation.auto-startup", havingValue = "false")
+    public FilterRegistrationBean<OncePerRequestFilter> lazyDocumentation(
+            ObjectProvider<DocumentationPluginsBootstrapper> bootstrapper) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain chain) throws ServletException, IOException {
+                bootstrapper.ifAvailable(documentation -> {
+                    if (!documentation.isRunning()) {
+                        documentation.start();
+                    }
+                });
+                chain.doFilter(request, response);
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(SWAGGER_PATHS);
+        return registration;
+    }
+}
@@ -0,0 +1,29 @@
+package com.epam.jpop.libraryservice.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.startup")
+public class StartupProperties {
+
+    /*Create the Feign clients, and the Ribbon and Feign contexts behind them, on their first call instead of at startup*/
+    private boolean lazyClients = false;
+
+    /*Call the downstream services and exercise the request path before the instance is marked UP*/
+    private boolean warmUp = false;
+
+    /*Connections opened to every downstream service during the warm up*/
+    private int warmUpConnections = 8;
+
+    /*Round trips of the downstream listings through the JSON mapper, enough for the JIT to compile them*/
+    private int warmUpIterations = 500;
+
+    /*Entities of each listing round tripped through the JSON mapper, about as many as a request maps*/
+    private int warmUpPageSize = 100;
+
+    /*The instance is marked UP after this long even if the warm up has not finished, what is left is cancelled*/
+    private Duration warmUpTimeout = Duration.ofSeconds(30);
+}
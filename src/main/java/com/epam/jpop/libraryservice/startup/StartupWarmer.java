@@ -0,0 +1,148 @@
+package com.epam.jpop.libraryservice.startup;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.BOOK_SERVICE;
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.USER_SERVICE;
+
+/*Warms the instance up once the application is ready, before it is marked UP.
+ * The first calls of a fresh instance pay for the Feign and Ribbon contexts, the Hystrix commands, the
+ * TCP and pool setup of every connection and the interpreted execution of the JSON mapping. Here those
+ * costs are paid by the instance itself: it fetches each listing once, opens the configured number of
+ * connections to every service with concurrent single reads, and round trips a page of each listing through
+ * the mapper until the JIT has compiled the path. Failures are only logged, the instance is marked UP anyway,
+ * and at the latest when the timeout expires, which also interrupts whatever part of the warm up is left.
+ */
+@Component
+public class StartupWarmer {
+
+    private static Logger logger = LoggerFactory.getLogger(StartupWarmer.class);
+
+    private final BookClient bookClient;
+    private final UserClient userClient;
+    private final DownstreamCommands commands;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final StartupProperties properties;
+
+    private volatile boolean warm;
+
+    @Autowired
+    public StartupWarmer(@Lazy BookClient bookClient, @Lazy UserClient userClient, DownstreamCommands commands,
+                         ObjectMapper objectMapper, ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                         StartupProperties properties) {
+        this.bookClient = bookClient;
+        this.userClient = userClient;
+        this.commands = commands;
+        this.objectMapper = objectMapper;
+        this.applicationInfoManager = applicationInfoManager;
+        this.properties = properties;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isWarmUp()) {
+            markUp();
+            return;
+        }
+        Thread warmer = new Thread(this::warmUpAndMarkUp, "startup-warmer");
+        warmer.setDaemon(true);
+        warmer.start();
+    }
+
+    private void warmUpAndMarkUp() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getWarmUpTimeout().toNanos();
+        // its own threads rather than the common pool, so that they can be interrupted when the time is up
+        ExecutorService services = daemonPool(2, "startup-warmer");
+        ExecutorService connections = daemonPool(properties.getWarmUpConnections(), "startup-warmer-connection");
+        try {
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> warmUp(BOOK_SERVICE, bookClient::getBooks, Book::getId,
+                            bookClient::getBook, new TypeReference<List<Book>>() {
+                            }, connections, deadline), services),
+                    CompletableFuture.runAsync(() -> warmUp(USER_SERVICE, userClient::getUsers, User::getId,
+                            userClient::getUser, new TypeReference<List<User>>() {
+                            }, connections, deadline), services))
+                    .get(properties.getWarmUpTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            logger.info("Warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.warn("Warm up did not complete, marking the instance UP anyway", e);
+        } finally {
+            services.shutdownNow();
+            connections.shutdownNow();
+            markUp();
+        }
+    }
+
+    private <T> void warmUp(String service, Supplier<List<T>> listing, Function<T, Long> id,
+                            Function<Long, T> read, TypeReference<List<T>> type, ExecutorService connections,
+                            long deadline) {
+        try {
+            List<T> entities = commands.execute(service, "warmUp", listing);
+            if (entities == null || entities.isEmpty()) {
+                return;
+            }
+            Long first = id.apply(entities.get(0));
+            List<CompletableFuture<T>> reads = new ArrayList<>();
+            for (int i = 0; i < properties.getWarmUpConnections(); i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> commands.execute(service, "warmUp",
+                        () -> read.apply(first)), connections));
+            }
+            CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).join();
+            // a page is what a request maps, the compiled code is the same however long the listing is
+            List<T> page = entities.subList(0, Math.min(entities.size(), properties.getWarmUpPageSize()));
+            for (int i = 0; i < properties.getWarmUpIterations() && !expired(deadline); i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(page), type);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not warm up the calls to {}: {}", service, e.getMessage());
+        }
+    }
+
+    private static boolean expired(long deadline) {
+        return Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0;
+    }
+
+    private static ExecutorService daemonPool(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void markUp() {
+        warm = true;
+        applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+    }
+}
@@ -0,0 +1,80 @@
+package com.epam.jpop.libraryservice.streaming;
+
+import com.epam.jpop.libraryservice.exception.LibraryException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+
+/*Relays a downstream JSON listing to the client token by token.
+ * Only the element currently being copied is held in memory, so the footprint of a listing
+ * does not grow with the size of the catalog. The output is flushed every few elements
+ * so that the client starts receiving data while the downstream response is still arriving.
+ */
+@Component
+public class JsonArrayStreamer {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final RestTemplate restTemplate;
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public JsonArrayStreamer(RestTemplate restTemplate, ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public StreamingResponseBody stream(String uri) {
+        return outputStream -> restTemplate.execute(URI.create(uri), HttpMethod.GET,
+                request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                response -> {
+                    copy(uri, response.getBody(), outputStream);
+                    return null;
+                });
+    }
+
+    private void copy(String uri, InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            // when the downstream response breaks off, what was relayed has to stay visibly incomplete
+            // instead of being closed into a shorter listing that parses
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT, false);
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new LibraryException("Empty response received from " + uri);
+            }
+            if (token != JsonToken.START_ARRAY) {
+                // not a plain array, e.g. a page wrapper: still copied as a stream, just without intermediate flushes
+                generator.copyCurrentStructure(parser);
+                return;
+            }
+            generator.writeStartArray();
+            int count = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new LibraryException("Truncated response received from " + uri);
+                }
+                generator.copyCurrentStructure(parser);
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.epam.jpop.libraryservice.streaming;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.passthrough")
+public class PassthroughProperties {
+
+    /*Relay the downstream bytes of the v1 read endpoints instead of binding and re-serializing them.
+     * Single book and user reads then bypass the object cache, and listings are not coalesced.
+     */
+    private boolean enabled = false;
+}
@@ -0,0 +1,104 @@
+package com.epam.jpop.libraryservice.streaming;
+
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/*Copies a downstream response to the client without binding it to objects.
+ * The status and the headers describing the body are relayed as received, and the body is copied
+ * buffer by buffer from the pooled connection to the servlet output stream. Only opening the
+ * connection and waiting for the response headers runs inside the downstream command, so the
+ * copy itself happens on the request thread and is bounded by the socket read timeout. A response that
+ * arrives after the command has timed out is closed, so its connection goes back to the pool.
+ * The validators of the client request are forwarded, so a downstream 304 is relayed without a body.
+ */
+@Component
+@EnableConfigurationProperties(PassthroughProperties.class)
+public class ResponseRelay {
+
+    private static final List<String> RELAYED_HEADERS = Arrays.asList(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.EXPIRES);
+
+    private static final List<String> FORWARDED_VALIDATORS = Arrays.asList(HttpHeaders.IF_NONE_MATCH,
+            HttpHeaders.IF_MODIFIED_SINCE);
+
+    private final RestTemplate restTemplate;
+    private final DownstreamCommands commands;
+    private final PassthroughProperties properties;
+
+    @Autowired
+    public ResponseRelay(RestTemplate restTemplate, DownstreamCommands commands, PassthroughProperties properties) {
+        this.restTemplate = restTemplate;
+        this.commands = commands;
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void relay(String service, String operation, URI uri, HttpServletRequest servletRequest,
+                      HttpServletResponse servletResponse) throws IOException {
+        HttpHeaders validators = new HttpHeaders();
+        for (String name : FORWARDED_VALIDATORS) {
+            String value = servletRequest.getHeader(name);
+            if (value != null) {
+                validators.set(name, value);
+            }
+        }
+        ClientHttpResponse response = commands.execute(service, operation, () -> open(uri, validators),
+                ClientHttpResponse::close);
+        try {
+            servletResponse.setStatus(response.getRawStatusCode());
+            HttpHeaders headers = response.getHeaders();
+            for (String name : RELAYED_HEADERS) {
+                String value = headers.getFirst(name);
+                if (value != null) {
+                    servletResponse.setHeader(name, value);
+                }
+            }
+            StreamUtils.copy(response.getBody(), servletResponse.getOutputStream());
+        } finally {
+            response.close();
+        }
+    }
+
+    private ClientHttpResponse open(URI uri, HttpHeaders validators) {
+        try {
+            // the template's request factory carries its interceptors, so metrics and load balancing still apply
+            ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+            request.getHeaders().putAll(validators);
+            ClientHttpResponse response = request.execute();
+            if (response.getRawStatusCode() >= 500) {
+                // a failing dependency has to fail the command, client errors are relayed as they are
+                HttpStatus status = HttpStatus.resolve(response.getRawStatusCode());
+                response.close();
+                throw new HttpServerErrorException(status == null ? HttpStatus.BAD_GATEWAY : status);
+            }
+            return response;
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.epam.jpop.libraryservice.threads;
+
+public enum ThreadMode {
+    /*Requests are served by the Tomcat worker pool and downstream calls by the Hystrix pool of each service*/
+    PLATFORM,
+    /*Requests are served by one virtual thread each and downstream calls stay on that thread, requires JDK 21*/
+    VIRTUAL
+}
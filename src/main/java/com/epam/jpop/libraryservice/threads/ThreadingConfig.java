@@ -0,0 +1,38 @@
+package com.epam.jpop.libraryservice.threads;
+
+import org.apache.coyote.AbstractProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(ThreadingProperties.class)
+public class ThreadingConfig {
+
+    private static Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "library.threads.mode", havingValue = "virtual")
+    public ExecutorService requestExecutor() {
+        logger.info("Serving requests on virtual threads");
+        return VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+    }
+
+    /*Replaces the bounded Tomcat worker pool, so a request waiting on a downstream service no longer holds
+     * one of a few hundred platform threads; the connection pool to the services becomes the limit instead
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.threads.mode", havingValue = "virtual")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(
+            ExecutorService requestExecutor) {
+        return factory -> factory.addConnectorCustomizers(connector ->
+                ((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(requestExecutor));
+    }
+}
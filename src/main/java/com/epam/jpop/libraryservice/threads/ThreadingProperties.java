@@ -0,0 +1,15 @@
+package com.epam.jpop.libraryservice.threads;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "library.threads")
+public class ThreadingProperties {
+
+    /*Threads serving requests and downstream calls*/
+    private ThreadMode mode = ThreadMode.PLATFORM;
+
+    /*Downstream calls in flight per service in virtual mode, beyond which calls are rejected with a 503*/
+    private int maxConcurrentCalls = 200;
+}
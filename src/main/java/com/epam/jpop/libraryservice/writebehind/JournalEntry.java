@@ -0,0 +1,29 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.epam.jpop.libraryservice.domain.WriteOperation;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/*Line of the write journal, either a write being accepted or the write under a tracking id being finished*/
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+public class JournalEntry {
+
+    private String trackingId;
+    private WriteOperation operation;
+    private Long id;
+    private JsonNode payload;
+    private Instant acceptedAt;
+    private boolean finished;
+
+    public static JournalEntry finished(String trackingId) {
+        return new JournalEntry(trackingId, null, null, null, null, true);
+    }
+}
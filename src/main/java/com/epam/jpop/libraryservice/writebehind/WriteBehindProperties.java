@@ -0,0 +1,41 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "library.write-behind")
+public class WriteBehindProperties {
+
+    /*Queue book and user additions and updates requested with Prefer: respond-async instead of waiting for them*/
+    private boolean enabled = false;
+
+    /*Writes waiting to be flushed before new ones are turned away, updates coalesced into a waiting write do not count*/
+    private int queueCapacity = 10000;
+
+    /*Largest number of queued writes sent downstream together*/
+    private int batchSize = 100;
+
+    /*Number of downstream writes of a batch in flight at once*/
+    private int flushConcurrency = 8;
+
+    /*Time between two flushes of the queue, and the back-off between two attempts of a failing write*/
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /*Attempts made while the downstream service is unavailable before a write is reported as failed*/
+    private int maxAttempts = 3;
+
+    /*How long the outcome of a write can still be polled once it is known*/
+    private Duration statusTtl = Duration.ofHours(1);
+
+    /*Upper bound of the writes whose progress is kept, the oldest are forgotten first*/
+    private int maxTrackedWrites = 100000;
+
+    /*File the accepted writes are journaled to and replayed from on start, so queued writes survive a restart*/
+    private String journal = "write-behind.journal";
+
+    /*Force every accepted write to the storage device, rather than only hand it to the operating system*/
+    private boolean syncJournal = false;
+}
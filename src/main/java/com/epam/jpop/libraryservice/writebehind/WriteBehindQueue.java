@@ -0,0 +1,429 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.WriteOperation;
+import com.epam.jpop.libraryservice.domain.WriteProgress;
+import com.epam.jpop.libraryservice.domain.WriteStatus;
+import com.epam.jpop.libraryservice.exception.DownstreamUnavailableException;
+import com.epam.jpop.libraryservice.exception.LibraryException;
+import com.epam.jpop.libraryservice.exception.WriteQueueFullException;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import feign.FeignException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.BOOK_SERVICE;
+import static com.epam.jpop.libraryservice.resilience.DownstreamCommands.USER_SERVICE;
+
+/*Write-behind queue for book and user additions and updates.
+ * An accepted write is journaled, acknowledged with a tracking id and made later by a background flush,
+ * which sends up to batch-size queued writes downstream at a time. Updates of the same book or user made
+ * while an earlier one is still queued are coalesced into it, so only the last one is sent and all their
+ * tracking ids complete together. A write failing because its service is unavailable is attempted again
+ * after a back-off, other failures are final. Writes are made at least once: one interrupted by a restart
+ * after it reached the downstream service is made again when the journal is replayed.
+ */
+@Component
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindQueue implements MeterBinder {
+
+    private static Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    /*Finished writes after which the journal is compacted even though the queue never ran empty*/
+    private static final int COMPACT_EVERY = 10000;
+
+    private final BookClient bookClient;
+    private final UserClient userClient;
+    private final DownstreamCommands commands;
+    private final ReadThroughCache<Long, Book> bookCache;
+    private final ReadThroughCache<Long, User> userCache;
+    private final BookCatalog bookCatalog;
+    private final ObjectMapper objectMapper;
+    private final WriteBehindProperties properties;
+
+    /*Queued writes by book, user or tracking id in the order they were accepted, guarded by this*/
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+
+    private final Cache<String, WriteProgress> progress;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /*Guarded by this*/
+    private WriteJournal journal;
+    private int finishedSinceCompaction;
+
+    private ScheduledExecutorService flusher;
+    private ExecutorService writers;
+
+    @Autowired
+    public WriteBehindQueue(@Lazy BookClient bookClient, @Lazy UserClient userClient, DownstreamCommands commands,
+                            ReadThroughCache<Long, Book> bookCache, ReadThroughCache<Long, User> userCache,
+                            BookCatalog bookCatalog, ObjectMapper objectMapper, WriteBehindProperties properties) {
+        this.bookClient = bookClient;
+        this.userClient = userClient;
+        this.commands = commands;
+        this.bookCache = bookCache;
+        this.userCache = userCache;
+        this.bookCatalog = bookCatalog;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.progress = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaxTrackedWrites())
+                .expireAfterWrite(properties.getStatusTtl().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<JournalEntry> recovered;
+        synchronized (this) {
+            journal = new WriteJournal(Paths.get(properties.getJournal()), objectMapper, properties.isSyncJournal());
+            recovered = journal.recover();
+            for (JournalEntry entry : recovered) {
+                enqueue(entry, objectMapper.treeToValue(entry.getPayload(), payloadType(entry.getOperation())));
+            }
+        }
+        if (!recovered.isEmpty()) {
+            logger.info("Replaying {} writes left in the write-behind journal", recovered.size());
+        }
+        AtomicInteger writerCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(properties.getFlushConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        // the batch being flushed is let finish, whatever is still queued is replayed from the journal on start
+        flusher.shutdown();
+        flusher.awaitTermination(properties.getFlushInterval().toMillis() * 10, TimeUnit.MILLISECONDS);
+        writers.shutdownNow();
+        synchronized (this) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public AcceptedResult accept(WriteOperation operation, Long id, Object payload) {
+        String trackingId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        JournalEntry entry = new JournalEntry(trackingId, operation, id, objectMapper.valueToTree(payload), now, false);
+        synchronized (this) {
+            if (!pending.containsKey(key(entry)) && pending.size() >= properties.getQueueCapacity()) {
+                throw new WriteQueueFullException("Too many writes are queued, retry later or without respond-async");
+            }
+            try {
+                journal.append(entry);
+            } catch (IOException e) {
+                throw new LibraryException("Unable to journal the write", e);
+            }
+            enqueue(entry, payload);
+        }
+        return new AcceptedResult(id, trackingId, WriteStatus.QUEUED);
+    }
+
+    public Optional<WriteProgress> getProgress(String trackingId) {
+        return Optional.ofNullable(progress.getIfPresent(trackingId));
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /*Sends the queued writes downstream, one batch after the other until none is due*/
+    public void flush() {
+        try {
+            List<PendingWrite> batch;
+            while (!(batch = takeBatch(System.nanoTime())).isEmpty()) {
+                List<Callable<Void>> calls = new ArrayList<>(batch.size());
+                for (PendingWrite write : batch) {
+                    calls.add(() -> {
+                        dispatch(write);
+                        return null;
+                    });
+                }
+                writers.invokeAll(calls);
+                compact();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // a failing flush must not cancel the ones scheduled after it
+            logger.error("Unable to flush the write-behind queue", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.writebehind.queued", this, WriteBehindQueue::size)
+                .description("Writes waiting to be sent downstream")
+                .register(registry);
+        FunctionCounter.builder("library.writebehind.writes", completed, LongAdder::sum)
+                .tag("outcome", "completed")
+                .register(registry);
+        FunctionCounter.builder("library.writebehind.writes", failed, LongAdder::sum)
+                .tag("outcome", "failed")
+                .register(registry);
+        FunctionCounter.builder("library.writebehind.coalesced", coalesced, LongAdder::sum)
+                .description("Updates folded into an update of the same entity that was still queued")
+                .register(registry);
+    }
+
+    /*Callers hold the lock*/
+    private void enqueue(JournalEntry entry, Object payload) {
+        progress.put(entry.getTrackingId(), WriteProgress.builder()
+                .trackingId(entry.getTrackingId())
+                .operation(entry.getOperation())
+                .id(entry.getId())
+                .status(WriteStatus.QUEUED)
+                .acceptedAt(entry.getAcceptedAt())
+                .build());
+        // the journal has it, the queue only keeps the latest payload of a book or user
+        entry.setPayload(null);
+        String key = key(entry);
+        PendingWrite write = pending.get(key);
+        if (write == null) {
+            pending.put(key, new PendingWrite(key, entry, payload));
+        } else {
+            write.entries.add(entry);
+            write.payload = payload;
+            coalesced.increment();
+        }
+    }
+
+    private synchronized List<PendingWrite> takeBatch(long now) {
+        List<PendingWrite> batch = new ArrayList<>();
+        Iterator<PendingWrite> writes = pending.values().iterator();
+        while (writes.hasNext() && batch.size() < properties.getBatchSize()) {
+            PendingWrite write = writes.next();
+            if (write.notBefore - now <= 0) {
+                writes.remove();
+                batch.add(write);
+            }
+        }
+        return batch;
+    }
+
+    private void dispatch(PendingWrite write) {
+        write.attempts++;
+        try {
+            Long id = write(write.operation(), write.id(), write.payload);
+            finish(write, WriteStatus.COMPLETED, id, HttpStatus.OK.value(), null);
+        } catch (DownstreamUnavailableException e) {
+            if (write.attempts < properties.getMaxAttempts()) {
+                retry(write);
+            } else {
+                finish(write, WriteStatus.FAILED, write.id(), HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            finish(write, WriteStatus.FAILED, write.id(), status(e), e.getMessage());
+        }
+    }
+
+    private Long write(WriteOperation operation, Long id, Object payload) {
+        switch (operation) {
+            case ADD_BOOK: {
+                Book added = commands.execute(BOOK_SERVICE, "addBook", () -> bookClient.addBook((Book) payload));
+                bookCatalog.put(added);
+                return added == null ? null : added.getId();
+            }
+            case UPDATE_BOOK: {
+                Book updated = commands.execute(BOOK_SERVICE, "updateBook",
+                        () -> bookClient.updateBook((Book) payload, id));
+                bookCache.invalidate(id);
+                bookCatalog.put(id, updated != null ? updated : (Book) payload);
+                return id;
+            }
+            case ADD_USER: {
+                User added = commands.execute(USER_SERVICE, "addUser", () -> userClient.addUser((User) payload));
+                return added == null ? null : added.getId();
+            }
+            case UPDATE_USER: {
+                commands.execute(USER_SERVICE, "updateUser", () -> userClient.updateUser((User) payload, id));
+                userCache.invalidate(id);
+                return id;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported write " + operation);
+        }
+    }
+
+    private void retry(PendingWrite write) {
+        write.notBefore = System.nanoTime() + properties.getFlushInterval().toNanos() * write.attempts;
+        synchronized (this) {
+            PendingWrite newer = pending.get(write.key);
+            if (newer == null) {
+                pending.put(write.key, write);
+            } else {
+                // an update accepted meanwhile supersedes this one, which now completes with it
+                newer.entries.addAll(0, write.entries);
+            }
+        }
+        for (JournalEntry entry : write.entries) {
+            progress.asMap().computeIfPresent(entry.getTrackingId(),
+                    (trackingId, current) -> current.toBuilder().attempts(write.attempts).build());
+        }
+    }
+
+    private void finish(PendingWrite write, WriteStatus status, Long id, Integer httpStatus, String message) {
+        Instant now = Instant.now();
+        for (JournalEntry entry : write.entries) {
+            WriteProgress current = progress.getIfPresent(entry.getTrackingId());
+            WriteProgress.WriteProgressBuilder finished = current != null ? current.toBuilder() : WriteProgress.builder()
+                    .trackingId(entry.getTrackingId())
+                    .operation(entry.getOperation())
+                    .acceptedAt(entry.getAcceptedAt());
+            progress.put(entry.getTrackingId(), finished
+                    .id(id)
+                    .status(status)
+                    .attempts(write.attempts)
+                    .httpStatus(httpStatus)
+                    .message(message)
+                    .completedAt(now)
+                    .build());
+        }
+        (status == WriteStatus.COMPLETED ? completed : failed).increment();
+        if (status == WriteStatus.FAILED) {
+            logger.warn("Giving up the queued write {} of {} after {} attempts: {}", write.operation(), write.key,
+                    write.attempts, message);
+        }
+        synchronized (this) {
+            try {
+                for (JournalEntry entry : write.entries) {
+                    journal.append(JournalEntry.finished(entry.getTrackingId()));
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to journal the outcome of {}, it will be written again on restart", write.key, e);
+            }
+            finishedSinceCompaction += write.entries.size();
+        }
+    }
+
+    /*Runs between two batches, when the queue holds every unfinished write*/
+    private synchronized void compact() {
+        if (finishedSinceCompaction == 0 || (!pending.isEmpty() && finishedSinceCompaction < COMPACT_EVERY)) {
+            return;
+        }
+        List<JournalEntry> live = new ArrayList<>();
+        for (PendingWrite write : pending.values()) {
+            JsonNode payload = objectMapper.valueToTree(write.payload);
+            for (JournalEntry entry : write.entries) {
+                live.add(new JournalEntry(entry.getTrackingId(), entry.getOperation(), entry.getId(), payload,
+                        entry.getAcceptedAt(), false));
+            }
+        }
+        try {
+            journal.rewrite(live);
+            finishedSinceCompaction = 0;
+        } catch (IOException e) {
+            logger.warn("Unable to compact the write-behind journal", e);
+        }
+    }
+
+    private static String key(JournalEntry entry) {
+        if (entry.getId() == null) {
+            return entry.getTrackingId();
+        }
+        return payloadType(entry.getOperation()).getSimpleName() + ":" + entry.getId();
+    }
+
+    private static Class<?> payloadType(WriteOperation operation) {
+        return operation == WriteOperation.ADD_BOOK || operation == WriteOperation.UPDATE_BOOK ? Book.class : User.class;
+    }
+
+    private static int status(RuntimeException e) {
+        if (e instanceof FeignException && ((FeignException) e).status() > 0) {
+            return ((FeignException) e).status();
+        }
+        if (e instanceof HttpStatusCodeException) {
+            return ((HttpStatusCodeException) e).getRawStatusCode();
+        }
+        return HttpStatus.BAD_GATEWAY.value();
+    }
+
+    /*Queued write of one book or user, or of one addition*/
+    private static final class PendingWrite {
+
+        private final String key;
+        /*Entries of all the tracking ids completed by this write, in the order they were accepted*/
+        private final List<JournalEntry> entries = new ArrayList<>();
+        private Object payload;
+        private int attempts;
+        private long notBefore;
+
+        private PendingWrite(String key, JournalEntry entry, Object payload) {
+            this.key = key;
+            this.entries.add(entry);
+            this.payload = payload;
+            this.notBefore = System.nanoTime();
+        }
+
+        private WriteOperation operation() {
+            return entries.get(0).getOperation();
+        }
+
+        private Long id() {
+            return entries.get(0).getId();
+        }
+    }
+}
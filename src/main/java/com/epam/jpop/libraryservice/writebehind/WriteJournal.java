@@ -0,0 +1,116 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*Append-only journal of write-behind writes, one JSON entry per line.
+ * A write is journaled when it is accepted and again when it is finished, so the writes accepted and not
+ * finished are the ones to replay after a restart. The journal is rewritten with only those from time to time.
+ * Not thread safe, the owner serializes the calls.
+ */
+public class WriteJournal implements Closeable {
+
+    private static Logger logger = LoggerFactory.getLogger(WriteJournal.class);
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean sync;
+
+    private FileChannel channel;
+
+    public WriteJournal(Path path, ObjectMapper objectMapper, boolean sync) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.sync = sync;
+    }
+
+    /*Reads the writes left unfinished by a previous run, in the order they were accepted, and opens the journal*/
+    public List<JournalEntry> recover() throws IOException {
+        Map<String, JournalEntry> unfinished = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                long number = 0;
+                while ((line = reader.readLine()) != null) {
+                    number++;
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    JournalEntry entry;
+                    try {
+                        entry = objectMapper.readValue(line, JournalEntry.class);
+                    } catch (IOException e) {
+                        // typically the last line, torn by a crash while it was appended
+                        logger.warn("Skipping unreadable line {} of the write journal {}", number, path);
+                        continue;
+                    }
+                    if (entry.isFinished()) {
+                        unfinished.remove(entry.getTrackingId());
+                    } else {
+                        unfinished.put(entry.getTrackingId(), entry);
+                    }
+                }
+            }
+        }
+        List<JournalEntry> entries = new ArrayList<>(unfinished.values());
+        // starting from a clean copy, so nothing is ever appended after a torn line
+        rewrite(entries);
+        return entries;
+    }
+
+    public void append(JournalEntry entry) throws IOException {
+        write(channel, entry);
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    /*Replaces the journal with the given entries, atomically*/
+    public void rewrite(List<JournalEntry> entries) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path copy = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+            for (JournalEntry entry : entries) {
+                write(out, entry);
+            }
+            out.force(true);
+        }
+        close();
+        Files.move(copy, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(FileChannel out, JournalEntry entry) throws IOException {
+        ByteBuffer[] line = {ByteBuffer.wrap(objectMapper.writeValueAsBytes(entry)), ByteBuffer.wrap(NEWLINE)};
+        while (line[1].hasRemaining()) {
+            out.write(line);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.epam.jpop.libraryservice;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*Class rule that points the Ribbon clients of a test class at its stub servers.
+ * The listOfServers properties are set before the application context of the class is started and are cleared,
+ * together with the stubs, once the class is done. Pair it with @DirtiesContext(classMode = AFTER_CLASS), so that
+ * the context and its Ribbon child contexts do not outlive the servers they were pointed at.
+ */
+public class DownstreamServices extends ExternalResource {
+
+    private final Map<String, String> properties = new LinkedHashMap<>();
+    private final List<StubServer> servers = new ArrayList<>();
+
+    public DownstreamServices service(String name, StubServer... instances) {
+        servers.addAll(Stream.of(instances).collect(Collectors.toList()));
+        return property(name + ".ribbon.listOfServers",
+                Stream.of(instances).map(StubServer::getAddress).collect(Collectors.joining(",")));
+    }
+
+    public DownstreamServices property(String name, String value) {
+        properties.put(name, value);
+        return this;
+    }
+
+    @Override
+    protected void before() {
+        properties.forEach(System::setProperty);
+    }
+
+    @Override
+    protected void after() {
+        properties.keySet().forEach(System::clearProperty);
+        servers.forEach(StubServer::close);
+    }
+}
@@ -0,0 +1,143 @@
+package com.epam.jpop.libraryservice;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*Local stand-in for book-service or user-service.
+ * Serves canned JSON responses per method and path on a random port, with optional injected latency,
+ * and records how often each route was called and the last request body and query string it received.
+ */
+public class StubServer implements Closeable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Response> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, String> requestBodies = new ConcurrentHashMap<>();
+    private final Map<String, String> requestQueries = new ConcurrentHashMap<>();
+    private volatile long latencyMillis;
+
+    private StubServer() throws IOException {
+        // a deep accept queue, so that load tests are not throttled by connection setup
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static StubServer start() {
+        try {
+            return new StubServer();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start stub server", e);
+        }
+    }
+
+    public StubServer respond(String method, String path, int status, String json) {
+        responses.put(key(method, path), new Response(status, json));
+        return this;
+    }
+
+    public StubServer withLatency(long millis) {
+        this.latencyMillis = millis;
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /*Host and port in the form expected by a Ribbon listOfServers property*/
+    public String getAddress() {
+        return "localhost:" + getPort();
+    }
+
+    public int getRequestCount(String method, String path) {
+        AtomicInteger count = requestCounts.get(key(method, path));
+        return count == null ? 0 : count.get();
+    }
+
+    public String getLastRequestBody(String method, String path) {
+        return requestBodies.get(key(method, path));
+    }
+
+    /*The raw query string of the last request, empty when it had none*/
+    public String getLastRequestQuery(String method, String path) {
+        return requestQueries.get(key(method, path));
+    }
+
+    public void reset() {
+        responses.clear();
+        requestCounts.clear();
+        requestBodies.clear();
+        requestQueries.clear();
+        latencyMillis = 0;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String key = key(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+        requestCounts.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        requestBodies.put(key, read(exchange.getRequestBody()));
+        String query = exchange.getRequestURI().getRawQuery();
+        requestQueries.put(key, query == null ? "" : query);
+        if (latencyMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Response response = responses.getOrDefault(key, new Response(404, "{\"message\":\"Not Found\"}"));
+        byte[] body = response.json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String key(String method, String path) {
+        return method.toUpperCase() + " " + path;
+    }
+
+    private static class Response {
+        private final int status;
+        private final String json;
+
+        private Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+}
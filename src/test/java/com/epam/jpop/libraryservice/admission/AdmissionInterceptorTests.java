@@ -0,0 +1,140 @@
+package com.epam.jpop.libraryservice.admission;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.domain.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        "library.admission.enabled=true",
+        "library.admission.client-ip-header=X-Forwarded-For",
+        "library.admission.trusted-proxies=127.0.0.1",
+        // one token every ten seconds, so that none is earned back while a test runs
+        "library.admission.rate-per-second=0.1",
+        "library.admission.burst=2",
+        "library.admission.listing-cost=1",
+        // a single slot that never adapts, so that one request in flight turns away the next
+        "library.admission.initial-limit=1",
+        "library.admission.min-limit=1",
+        "library.admission.max-limit=1"
+})
+public class AdmissionInterceptorTests {
+
+    private static final StubServer bookService = StubServer.start();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void resetDownstreamServices() {
+        bookService.reset();
+        bookCache.invalidateAll();
+        bookService.respond("GET", "/api/books/1", 200, "{\"id\":1,\"title\":\"Dune\"}");
+    }
+
+    @Test
+    public void clientOverItsRateIsToldWhenToRetry() {
+        assertThat(get("/api/lib/books/v2/1", "10.0.0.1").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/api/lib/books/v2/1", "10.0.0.1").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> limited = get("/api/lib/books/v2/1", "10.0.0.1");
+
+        assertThat(limited.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(Integer.parseInt(limited.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(1, 10);
+        assertThat(get("/api/lib/books/v2/1", "10.0.0.2").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    public void clientCannotChooseAFreshBucket() {
+        get("/api/lib/books/v2/1", "10.0.1.1");
+        get("/api/lib/books/v2/1", "10.0.1.1");
+        HttpHeaders headers = new HttpHeaders();
+        // a forged hop left of the address the trusted proxy appended, and a self-chosen client id
+        headers.set("X-Forwarded-For", "10.9.9.9, 10.0.1.1");
+        headers.set("X-Client-Id", "someone-else");
+
+        ResponseEntity<String> response = restTemplate.exchange("/api/lib/books/v2/1", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    public void requestOverTheConcurrencyLimitIsShed() throws Exception {
+        bookService.withLatency(500);
+        CompletableFuture<ResponseEntity<String>> inFlight = CompletableFuture.supplyAsync(
+                () -> get("/api/lib/books/v2/1", "10.0.2.1"));
+        while (bookService.getRequestCount("GET", "/api/books/1") == 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        ResponseEntity<String> shed = get("/api/lib/books/v2/1", "10.0.2.2");
+
+        assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(inFlight.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(awaitInFlight()).isZero();
+    }
+
+    @Test
+    public void slotIsGivenBackOnceAStreamedResponseIsComplete() throws Exception {
+        bookService.respond("GET", "/api/books/", 200, "[{\"id\":1,\"title\":\"Dune\"}]");
+
+        ResponseEntity<String> streamed = get("/api/lib/books/stream", "10.0.3.1");
+
+        assertThat(streamed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(streamed.getBody()).isEqualTo("[{\"id\":1,\"title\":\"Dune\"}]");
+        assertThat(awaitInFlight()).isZero();
+        assertThat(get("/api/lib/books/v2/1", "10.0.3.2").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> get(String path, String clientAddress) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forwarded-For", clientAddress);
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    /*Requests in flight once the last one has been completed, which may trail the last byte of it a little*/
+    private double awaitInFlight() throws InterruptedException {
+        double inFlight = meterRegistry.get("library.admission.inflight").gauge().value();
+        for (int i = 0; i < 100 && inFlight > 0; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            inFlight = meterRegistry.get("library.admission.inflight").gauge().value();
+        }
+        return inFlight;
+    }
+}
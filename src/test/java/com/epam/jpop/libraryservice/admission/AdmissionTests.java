@@ -0,0 +1,86 @@
+package com.epam.jpop.libraryservice.admission;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdmissionTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void bucketAllowsBurstThenRefillsAtItsRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryTake(1, 0)).isZero();
+        }
+        long wait = bucket.tryTake(1, 0);
+
+        assertThat(wait).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryTake(1, wait)).isZero();
+        assertThat(bucket.tryTake(1, wait)).isPositive();
+    }
+
+    @Test
+    public void bucketChargesExpensiveRequestsMoreTokens() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+        assertThat(bucket.tryTake(5, 0)).isZero();
+        assertThat(bucket.tryTake(5, SECOND / 10)).isEqualTo(4 * SECOND / 10);
+        assertThat(bucket.tryTake(1, SECOND / 10)).isZero();
+    }
+
+    @Test
+    public void listingsAreShedBeforeSingleReads() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setInitialLimit(10);
+        ConcurrencyLimit limit = new ConcurrencyLimit(properties);
+
+        int listings = 0;
+        while (limit.tryAcquire(Priority.LISTING)) {
+            listings++;
+        }
+        int reads = 0;
+        while (limit.tryAcquire(Priority.READ)) {
+            reads++;
+        }
+
+        assertThat(listings).isEqualTo(5);
+        assertThat(reads).isEqualTo(5);
+        assertThat(limit.tryAcquire(Priority.WRITE)).isFalse();
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdmissionProperties properties = new AdmissionProperties();
+        ConcurrencyLimit limit = new ConcurrencyLimit(properties);
+
+        for (int i = 0; i < 50; i++) {
+            saturate(limit, 5 * MILLISECOND);
+        }
+        int grown = limit.getLimit();
+        saturate(limit, 20 * MILLISECOND);
+        int slowed = limit.getLimit();
+        limit.tryAcquire(Priority.READ);
+        limit.release(Priority.READ, 5 * MILLISECOND, true);
+
+        assertThat(grown).isGreaterThan(properties.getInitialLimit());
+        assertThat(slowed).isLessThan(grown);
+        assertThat(limit.getLimit()).isLessThan(slowed);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    private static void saturate(ConcurrencyLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire(Priority.READ)) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(Priority.READ, rttNanos, false);
+        }
+    }
+}
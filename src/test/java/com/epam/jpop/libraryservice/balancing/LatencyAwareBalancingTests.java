@@ -0,0 +1,83 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        // the first call of the class also pays for starting the clients
+        "hystrix.command.default.execution.isolation.thread.timeoutInMilliseconds=10000"
+})
+public class LatencyAwareBalancingTests {
+
+    private static final int CALLS = 30;
+
+    private static final StubServer fastBookService = StubServer.start();
+    private static final StubServer slowBookService = StubServer.start().withLatency(150);
+    private static final StubServer healthyUserService = StubServer.start();
+    private static final StubServer failingUserService = StubServer.start();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", fastBookService, slowBookService)
+            .service("user-service", healthyUserService, failingUserService);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeClass
+    public static void stubDownstreamServices() {
+        for (int id = 1; id <= CALLS; id++) {
+            fastBookService.respond("GET", "/api/books/" + id, 200, "{\"id\":" + id + "}");
+            slowBookService.respond("GET", "/api/books/" + id, 200, "{\"id\":" + id + "}");
+            healthyUserService.respond("GET", "/api/users/" + id, 200, "{\"id\":" + id + "}");
+            failingUserService.respond("GET", "/api/users/" + id, 503, "{\"message\":\"Service Unavailable\"}");
+        }
+    }
+
+    @Test
+    public void slowInstanceIsAvoidedOnceItsLatencyIsKnown() {
+        for (int id = 1; id <= CALLS; id++) {
+            assertThat(restTemplate.getForEntity("/api/lib/books/v2/" + id, String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.OK);
+        }
+
+        assertThat(requests(slowBookService, "/api/books/")).isLessThanOrEqualTo(2);
+        assertThat(requests(fastBookService, "/api/books/")).isGreaterThanOrEqualTo(CALLS - 2);
+    }
+
+    @Test
+    public void failingInstanceIsAvoidedFromItsFirstFailure() {
+        HttpStatus last = null;
+        for (int id = 1; id <= CALLS; id++) {
+            last = restTemplate.getForEntity("/api/lib/users/v2/" + id, String.class).getStatusCode();
+        }
+
+        assertThat(requests(failingUserService, "/api/users/")).isLessThanOrEqualTo(1);
+        assertThat(requests(healthyUserService, "/api/users/")).isGreaterThanOrEqualTo(CALLS - 1);
+        assertThat(last).isEqualTo(HttpStatus.OK);
+    }
+
+    private static int requests(StubServer server, String path) {
+        int count = 0;
+        for (int id = 1; id <= CALLS; id++) {
+            count += server.getRequestCount("GET", path + id);
+        }
+        return count;
+    }
+}
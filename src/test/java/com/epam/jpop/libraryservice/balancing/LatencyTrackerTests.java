@@ -0,0 +1,57 @@
+package com.epam.jpop.libraryservice.balancing;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyTrackerTests {
+
+    private static final String HEALTHY = LatencyTracker.instance("localhost", 8081);
+    private static final String FLAKY = LatencyTracker.instance("localhost", 8082);
+
+    private final LatencyTracker tracker = new LatencyTracker(new BalancingProperties());
+
+    @Test
+    public void instanceFailingFastHalfOfTheTimeIsNotPreferred() throws InterruptedException {
+        int healthyCalls = 0;
+        int flakyCalls = 0;
+        for (int i = 0; i < 100; i++) {
+            // with two instances the power of two choices always goes to the cheaper one, ties to the flaky one
+            if (tracker.cost(FLAKY) <= tracker.cost(HEALTHY)) {
+                long start = tracker.begin(FLAKY);
+                tracker.complete(FLAKY, start, flakyCalls++ % 2 == 0);
+            } else {
+                long start = tracker.begin(HEALTHY);
+                TimeUnit.MILLISECONDS.sleep(2);
+                tracker.complete(HEALTHY, start, false);
+                healthyCalls++;
+            }
+        }
+
+        assertThat(flakyCalls).isLessThanOrEqualTo(2);
+        assertThat(healthyCalls).isGreaterThanOrEqualTo(98);
+        assertThat(tracker.isEjected(FLAKY)).isFalse();
+    }
+
+    @Test
+    public void instanceIsEjectedAfterConsecutiveFailures() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(tracker.isEjected(FLAKY)).isFalse();
+            tracker.complete(FLAKY, tracker.begin(FLAKY), true);
+        }
+
+        assertThat(tracker.isEjected(FLAKY)).isTrue();
+    }
+
+    @Test
+    public void successAfterAFailureOnlyDecaysThePenalty() {
+        long start = tracker.begin(FLAKY);
+        tracker.complete(FLAKY, start, true);
+        start = tracker.begin(FLAKY);
+        tracker.complete(FLAKY, start, false);
+
+        assertThat(tracker.cost(FLAKY)).isGreaterThan(TimeUnit.SECONDS.toNanos(9));
+    }
+}
@@ -0,0 +1,79 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class BulkExporterTests {
+
+    private static final String USERS_URI = "http://user-service/api/users/";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer userService = MockRestServiceServer.bindTo(restTemplate).build();
+    private final BulkExporter exporter = new BulkExporter(restTemplate, new ObjectMapper());
+
+    @Test
+    public void localRecordsAreExportedAsCsvWithAHeader() throws IOException {
+        String exported = export(exporter.export(Arrays.asList(user(1L, "Ann"), user(2L, "Bob, Jr.")),
+                RecordFormat.CSV, new User()));
+
+        assertThat(exported).isEqualTo("id,name,role,email,phoneNumber\n"
+                + "1,Ann,READER,,\n"
+                + "2,\"Bob, Jr.\",READER,,\n");
+    }
+
+    @Test
+    public void downstreamListingIsExportedElementByElement() throws IOException {
+        StringBuilder listing = new StringBuilder("[");
+        StringBuilder expected = new StringBuilder();
+        for (int id = 1; id <= 250; id++) {
+            listing.append(id == 1 ? "" : ",").append("{\"id\":").append(id).append(",\"name\":\"User\"}");
+            expected.append("{\"id\":").append(id).append(",\"name\":\"User\",\"role\":null,\"email\":null,")
+                    .append("\"phoneNumber\":null}\n");
+        }
+        userService.expect(requestTo(USERS_URI)).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(listing.append(']').toString(), MediaType.APPLICATION_JSON));
+
+        String exported = export(exporter.export(USERS_URI, User.class, RecordFormat.NDJSON, new User()));
+
+        assertThat(exported).isEqualTo(expected.toString());
+        userService.verify();
+    }
+
+    @Test
+    public void truncatedDownstreamListingFailsTheExport() {
+        userService.expect(requestTo(USERS_URI))
+                .andRespond(withSuccess("[{\"id\":1,\"name\":\"Ann\"}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> export(exporter.export(USERS_URI, User.class, RecordFormat.CSV, new User())))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessageContaining("Unexpected end-of-input");
+    }
+
+    private static String export(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static User user(Long id, String name) {
+        return User.builder().id(id).name(name).role("READER").build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.ImportResult;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkImporterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BatchProperties properties = new BatchProperties();
+    private final BulkImporter importer = new BulkImporter(properties, objectMapper);
+
+    @Test
+    public void resultsFollowTheUploadOrderWhileWritesCompleteOutOfOrder() throws IOException {
+        properties.setMaxImportConcurrency(8);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Function<User, Mono<User>> write = user -> Mono.delay(Duration.ofMillis(ThreadLocalRandom.current().nextInt(5)))
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .map(ignored -> {
+                    inFlight.decrementAndGet();
+                    return User.builder().id(user.getId() + 1000).name(user.getName()).build();
+                });
+
+        List<ImportResult> results = importUsers(ndjson(300), RecordFormat.NDJSON, write);
+
+        assertThat(results).hasSize(300);
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i)).isEqualTo(new ImportResult(i + 1, 201, i + 1001L, null));
+        }
+        assertThat(maxInFlight.get()).isBetween(2, 8);
+    }
+
+    @Test
+    public void malformedCsvLinesAreAnsweredWithBadRequestAndTheRestImported() throws IOException {
+        String upload = "id,name,email\n"
+                + "1,Ann,ann@example.com\n"
+                + "2,Bob,bob@example.com,extra\n"
+                + "notanumber,Cid,cid@example.com\n"
+                + "4,Dan,dan@example.com\n";
+
+        List<ImportResult> results = importUsers(upload, RecordFormat.CSV, Mono::just);
+
+        assertThat(results).extracting(ImportResult::getLine).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(results).extracting(ImportResult::getStatus).containsExactly(201, 400, 400, 201);
+        assertThat(results).extracting(ImportResult::getId).containsExactly(1L, null, null, 4L);
+        assertThat(results.get(1).getMessage()).isEqualTo("Expected at most 3 fields but found 4");
+    }
+
+    @Test
+    public void failedWriteIsReportedOnItsLine() throws IOException {
+        List<ImportResult> results = importUsers(ndjson(3), RecordFormat.NDJSON, user -> user.getId() == 2
+                ? Mono.error(new IllegalStateException("user-service unavailable"))
+                : Mono.just(user));
+
+        assertThat(results).extracting(ImportResult::getStatus).containsExactly(201, 502, 201);
+        assertThat(results.get(1).getMessage()).isEqualTo("user-service unavailable");
+    }
+
+    @Test
+    public void importStopsWhenTheResultsCannotBeWritten() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        OutputStream gone = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> importer.importRecords(upload(ndjson(100000)), RecordFormat.NDJSON, User.class,
+                user -> Mono.fromCallable(() -> {
+                    writes.incrementAndGet();
+                    return user;
+                }), User::getId, gone)).isInstanceOf(IOException.class);
+        int stopped = writes.get();
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        assertThat(writes.get()).isLessThan(1000).isLessThanOrEqualTo(stopped + properties.getMaxImportConcurrency());
+    }
+
+    private List<ImportResult> importUsers(String upload, RecordFormat format, Function<User, Mono<User>> write)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importRecords(upload(upload), format, User.class, write, User::getId, out);
+        List<ImportResult> results = new ArrayList<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, ImportResult.class));
+        }
+        return results;
+    }
+
+    private static ByteArrayInputStream upload(String upload) {
+        return new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String ndjson(int users) {
+        StringBuilder upload = new StringBuilder();
+        for (int id = 1; id <= users; id++) {
+            upload.append("{\"id\":").append(id).append(",\"name\":\"User ").append(id).append("\"}\n");
+        }
+        return upload.toString();
+    }
+}
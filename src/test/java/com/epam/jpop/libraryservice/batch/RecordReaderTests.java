@@ -0,0 +1,84 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordReaderTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void ndjsonLinesAreBoundWithTheirLineNumbers() {
+        List<RecordReader.Record<User>> records = read(RecordFormat.NDJSON, User.class,
+                "{\"id\":1,\"name\":\"Ann\"}\n"
+                        + "\n"
+                        + "{\"id\":2,\"name\":\"Bob\"}\n");
+
+        assertThat(records).extracting(record -> record.line).containsExactly(1L, 3L);
+        assertThat(records).extracting(record -> record.value.getName()).containsExactly("Ann", "Bob");
+        assertThat(records).extracting(record -> record.error).containsOnlyNulls();
+    }
+
+    @Test
+    public void csvFieldsAreBoundByHeaderIncludingNestedAndQuotedOnes() {
+        List<RecordReader.Record<Book>> records = read(RecordFormat.CSV, Book.class,
+                "id,title,author.code,author.name,price\n"
+                        + "1,\"Dune, the \"\"first\"\" book\",HERBERT,Frank Herbert,9.99\n"
+                        + "2,Emma,,,\n");
+
+        Book dune = records.get(0).value;
+        assertThat(dune.getTitle()).isEqualTo("Dune, the \"first\" book");
+        assertThat(dune.getAuthor().getCode()).isEqualTo("HERBERT");
+        assertThat(dune.getAuthor().getName()).isEqualTo("Frank Herbert");
+        assertThat(dune.getPrice()).isEqualTo(9.99);
+        assertThat(records.get(1).value.getAuthor()).isNull();
+        assertThat(records.get(1).value.getPrice()).isNull();
+        assertThat(records).extracting(record -> record.line).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void malformedLinesFailOnTheirOwn() {
+        List<RecordReader.Record<Book>> records = read(RecordFormat.CSV, Book.class,
+                "id,title,price\n"
+                        + "1,Dune,9.99\n"
+                        + "2,Emma,cheap\n"
+                        + "3,Ulysses,1.0,extra\n"
+                        + "4,Persuasion,7.5\n");
+
+        assertThat(records).extracting(record -> record.line).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(records.get(0).value.getTitle()).isEqualTo("Dune");
+        assertThat(records.get(1).value).isNull();
+        assertThat(records.get(1).error).isNotEmpty();
+        assertThat(records.get(2).value).isNull();
+        assertThat(records.get(2).error).isEqualTo("Expected at most 3 fields but found 4");
+        assertThat(records.get(3).value.getTitle()).isEqualTo("Persuasion");
+    }
+
+    @Test
+    public void malformedNdjsonLineFailsOnItsOwn() {
+        List<RecordReader.Record<User>> records = read(RecordFormat.NDJSON, User.class,
+                "{\"id\":1,\"name\":\"Ann\"}\n"
+                        + "{\"id\":2,\"name\":\n"
+                        + "{\"id\":3,\"name\":\"Cid\"}\n");
+
+        assertThat(records).extracting(record -> record.error == null).containsExactly(true, false, true);
+        assertThat(records.get(2).value.getName()).isEqualTo("Cid");
+    }
+
+    private <T> List<RecordReader.Record<T>> read(RecordFormat format, Class<T> type, String upload) {
+        RecordReader<T> reader = new RecordReader<>(new BufferedReader(new StringReader(upload)), format, type,
+                objectMapper);
+        List<RecordReader.Record<T>> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+}
@@ -0,0 +1,80 @@
+package com.epam.jpop.libraryservice.batch;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordWriterTests {
+
+    private static final Book BOOK_PROTOTYPE = Book.builder().author(new Author()).build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void ndjsonRoundTrips() throws IOException {
+        List<User> users = Arrays.asList(user(1L, "Ann"), user(2L, "Bob \"the\" builder"));
+
+        String written = write(RecordFormat.NDJSON, null, users);
+
+        assertThat(written.split("\n")).hasSize(2);
+        assertThat(read(RecordFormat.NDJSON, User.class, written)).isEqualTo(users);
+    }
+
+    @Test
+    public void csvRoundTripsThroughTheColumnsOfThePrototype() throws IOException {
+        List<Book> books = Arrays.asList(
+                book(1L, "Dune, the \"first\" book", "HERBERT", 9.99),
+                book(2L, "Emma", null, null));
+
+        String written = write(RecordFormat.CSV, BOOK_PROTOTYPE, books);
+
+        assertThat(written).startsWith("id,title,author.code,author.name,author.address,author.phoneNumber,");
+        assertThat(written).contains("\"Dune, the \"\"first\"\" book\"");
+        assertThat(read(RecordFormat.CSV, Book.class, written)).isEqualTo(books);
+    }
+
+    private String write(RecordFormat format, Object prototype, List<?> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordWriter writer = new RecordWriter(out, format, objectMapper, prototype);
+        for (Object record : records) {
+            writer.write(record);
+        }
+        writer.flush();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private <T> List<T> read(RecordFormat format, Class<T> type, String written) {
+        RecordReader<T> reader = new RecordReader<>(new BufferedReader(new StringReader(written)), format, type,
+                objectMapper);
+        List<T> records = new ArrayList<>();
+        reader.forEachRemaining(record -> records.add(record.value));
+        return records;
+    }
+
+    private static User user(Long id, String name) {
+        return User.builder().id(id).name(name).role("READER").build();
+    }
+
+    private static Book book(Long id, String title, String authorCode, Double price) {
+        Author author = null;
+        if (authorCode != null) {
+            author = new Author();
+            author.setCode(authorCode);
+            author.setName("Frank Herbert");
+        }
+        return Book.builder().id(id).title(title).author(author).price(price).build();
+    }
+}
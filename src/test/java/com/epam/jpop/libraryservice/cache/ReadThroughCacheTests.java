@@ -0,0 +1,137 @@
+package com.epam.jpop.libraryservice.cache;
+
+import com.epam.jpop.libraryservice.exception.DownstreamUnavailableException;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReadThroughCacheTests {
+
+    private final ReadThroughCache<Long, String> cache = new ReadThroughCache<>("books", new CacheProperties());
+
+    @Test
+    public void loadOverlappingAnInvalidationOfItsKeyIsNotCached() {
+        String loaded = cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return "Dune";
+        });
+
+        assertThat(loaded).isEqualTo("Dune");
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void loadOverlappingAnInvalidationOfAnotherKeyIsCached() {
+        cache.get(1L, () -> {
+            cache.invalidate(2L);
+            return "Dune";
+        });
+        cache.getAsync(3L, () -> Mono.fromCallable(() -> {
+            cache.invalidate(4L);
+            return "Emma";
+        })).block();
+
+        assertThat(cache.getIfPresent(1L)).isEqualTo("Dune");
+        assertThat(cache.getIfPresent(3L)).isEqualTo("Emma");
+    }
+
+    @Test
+    public void asyncLoadOverlappingAnInvalidationOfAllKeysIsNotCached() {
+        cache.getAsync(1L, () -> Mono.fromCallable(() -> {
+            cache.invalidateAll();
+            return "Dune";
+        })).block();
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void failedLoadsAreCounted() {
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("book-service unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get(2L, () -> "Dune");
+
+        assertThat(cache.statistics().getLoadExceptionCount()).isEqualTo(1);
+        assertThat(cache.statistics().getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void entryIsLoadedAgainOnceExpired() throws InterruptedException {
+        ReadThroughCache<Long, String> cache = shortLived(Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> "Dune " + loads.incrementAndGet());
+        String cached = cache.get(1L, () -> "Dune " + loads.incrementAndGet());
+        TimeUnit.MILLISECONDS.sleep(150);
+        String reloaded = cache.get(1L, () -> "Dune " + loads.incrementAndGet());
+
+        assertThat(cached).isEqualTo("Dune 1");
+        assertThat(reloaded).isEqualTo("Dune 2");
+    }
+
+    @Test
+    public void expiredEntryIsServedStaleOnlyWhileTheServiceIsUnavailable() throws InterruptedException {
+        ReadThroughCache<Long, String> cache = shortLived(Duration.ofHours(1));
+        cache.get(1L, () -> "Dune");
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertThat(cache.get(1L, () -> {
+            throw unavailable();
+        })).isEqualTo("Dune");
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalArgumentException("Bad book id");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.get(2L, () -> {
+            throw unavailable();
+        })).isInstanceOf(DownstreamUnavailableException.class);
+    }
+
+    @Test
+    public void staleEntryIsDroppedAfterItsTtl() throws InterruptedException {
+        ReadThroughCache<Long, String> cache = shortLived(Duration.ofMillis(200));
+        cache.get(1L, () -> "Dune");
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw unavailable();
+        })).isInstanceOf(DownstreamUnavailableException.class);
+    }
+
+    @Test
+    public void invalidatedEntryIsNeitherCachedNorServedStale() {
+        cache.get(1L, () -> "Dune");
+        cache.get(2L, () -> "Emma");
+        cache.invalidate(1L);
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).isEqualTo("Emma");
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw unavailable();
+        })).isInstanceOf(DownstreamUnavailableException.class);
+
+        cache.invalidateAll();
+
+        assertThat(cache.getIfPresent(2L)).isNull();
+        assertThatThrownBy(() -> cache.get(2L, () -> {
+            throw unavailable();
+        })).isInstanceOf(DownstreamUnavailableException.class);
+    }
+
+    private static ReadThroughCache<Long, String> shortLived(Duration staleTtl) {
+        CacheProperties properties = new CacheProperties();
+        properties.setExpireAfterWrite(Duration.ofMillis(100));
+        properties.setStaleTtl(staleTtl);
+        return new ReadThroughCache<>("books", properties);
+    }
+
+    private static DownstreamUnavailableException unavailable() {
+        return new DownstreamUnavailableException("Call to book-service failed (TIMEOUT): getBook", null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.epam.jpop.libraryservice.threads.ThreadingProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BookCatalogTests {
+
+    private final BookClient bookClient = mock(BookClient.class);
+
+    private BookCatalog catalog;
+
+    @Before
+    public void createCatalog() {
+        CatalogProperties properties = new CatalogProperties();
+        properties.setEnabled(true);
+        catalog = new BookCatalog(bookClient, new DownstreamCommands(new ThreadingProperties()), properties);
+    }
+
+    @Test
+    public void readsFallBackToTheBookServiceUntilTheFirstSynchronisation() {
+        assertThat(catalog.getBook(1L)).isEmpty();
+        assertThat(catalog.getBooks()).isEmpty();
+
+        when(bookClient.getBooks()).thenReturn(Arrays.asList(book(2L, "Emma"), book(1L, "Dune")));
+        catalog.synchronize();
+
+        assertThat(catalog.getBook(1L)).contains(book(1L, "Dune"));
+        assertThat(catalog.getBooks().get()).extracting(Book::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void synchronisationAppliesChangesAndRemovals() {
+        when(bookClient.getBooks()).thenReturn(Arrays.asList(book(1L, "Dune"), book(2L, "Emma")));
+        catalog.synchronize();
+        when(bookClient.getBooks()).thenReturn(Collections.singletonList(book(1L, "Dune Messiah")));
+        catalog.synchronize();
+
+        assertThat(catalog.getBooks().get()).containsExactly(book(1L, "Dune Messiah"));
+        assertThat(catalog.getBook(2L)).isEmpty();
+    }
+
+    @Test
+    public void localWritesInvalidateTheListing() {
+        when(bookClient.getBooks()).thenReturn(Collections.singletonList(book(1L, "Dune")));
+        catalog.synchronize();
+        assertThat(catalog.getBooks().get()).hasSize(1);
+
+        catalog.put(book(2L, "Emma"));
+        assertThat(catalog.getBooks().get()).extracting(Book::getId).containsExactly(1L, 2L);
+
+        catalog.remove(1L);
+        assertThat(catalog.getBooks().get()).containsExactly(book(2L, "Emma"));
+    }
+
+    @Test
+    public void bookWrittenToAnIdIsStoredUnderThatIdWhateverItsBodySays() {
+        when(bookClient.getBooks()).thenReturn(Collections.singletonList(book(1L, "Dune")));
+        catalog.synchronize();
+
+        catalog.put(7L, book(1L, "Emma"));
+
+        assertThat(catalog.getBook(7L)).contains(book(7L, "Emma"));
+        assertThat(catalog.getBook(1L)).contains(book(1L, "Dune"));
+    }
+
+    @Test
+    public void failedSynchronisationKeepsTheReplica() {
+        when(bookClient.getBooks()).thenReturn(Collections.singletonList(book(1L, "Dune")));
+        catalog.synchronize();
+        when(bookClient.getBooks()).thenThrow(new IllegalStateException("book service down"));
+        catalog.synchronize();
+
+        assertThat(catalog.getBook(1L)).contains(book(1L, "Dune"));
+        assertThat(catalog.statistics().getSyncFailureCount()).isEqualTo(1);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BookIndexTests {
+
+    private final BookIndex index = new BookIndex();
+
+    @Test
+    public void booksSharingAnIsbnAreAllFound() {
+        Book first = book(1L, 9780441172719L, 9.99, "1965-08-01", "HERBERT");
+        Book second = book(2L, 9780441172719L, 12.50, "1965-08-01", "HERBERT");
+        index.index(null, first);
+        index.index(null, second);
+
+        assertThat(index.candidates(byIsbn(9780441172719L))).containsOnly(1L, 2L);
+
+        index.unindex(first);
+        assertThat(index.candidates(byIsbn(9780441172719L))).containsOnly(2L);
+        index.unindex(second);
+        assertThat(index.candidates(byIsbn(9780441172719L))).isEmpty();
+    }
+
+    @Test
+    public void priceRangesIncludeTheirBounds() {
+        index.index(null, book(1L, 1L, 5.0, "1965-08-01", "HERBERT"));
+        index.index(null, book(2L, 2L, 10.0, "1965-08-01", "HERBERT"));
+        index.index(null, book(3L, 3L, 20.0, "1965-08-01", "HERBERT"));
+
+        assertThat(index.candidates(byPrice(10.0, 20.0))).containsOnly(2L, 3L);
+        assertThat(index.candidates(byPrice(null, 10.0))).containsOnly(1L, 2L);
+        assertThat(index.candidates(byPrice(6.0, null))).containsOnly(2L, 3L);
+        assertThat(index.candidates(byPrice(20.0, 5.0))).isEmpty();
+    }
+
+    @Test
+    public void publicationDayRangesIncludeTheirBounds() {
+        index.index(null, book(1L, 1L, 9.99, "1965-08-01", "HERBERT"));
+        index.index(null, book(2L, 2L, 9.99, "1969-10-15", "HERBERT"));
+        index.index(null, book(3L, 3L, 9.99, "1976-06-01", "HERBERT"));
+
+        assertThat(index.candidates(byPublished("1965-08-01", "1969-10-15"))).containsOnly(1L, 2L);
+        assertThat(index.candidates(byPublished("1970-01-01", null))).containsOnly(3L);
+        assertThat(index.candidates(byPublished(null, "1965-07-31"))).isEmpty();
+    }
+
+    @Test
+    public void updateMovesABookBetweenBuckets() {
+        Book dune = book(1L, 1L, 9.99, "1965-08-01", "HERBERT");
+        index.index(null, dune);
+        Book reissued = book(1L, 2L, 14.99, "1990-09-01", "ANDERSON");
+        index.index(dune, reissued);
+
+        assertThat(index.candidates(byPrice(9.0, 10.0))).isEmpty();
+        assertThat(index.candidates(byPrice(14.0, 15.0))).containsOnly(1L);
+        assertThat(index.candidates(byPublished("1965-08-01", "1965-08-01"))).isEmpty();
+        assertThat(index.candidates(byPublished("1990-09-01", "1990-09-01"))).containsOnly(1L);
+        assertThat(index.candidates(byIsbn(1L))).isEmpty();
+        assertThat(index.candidates(byIsbn(2L))).containsOnly(1L);
+        assertThat(index.candidates(byAuthor("HERBERT"))).isEmpty();
+        assertThat(index.candidates(byAuthor("ANDERSON"))).containsOnly(1L);
+    }
+
+    @Test
+    public void queryWithoutCriteriaHasNoCandidateSet() {
+        index.index(null, book(1L, 1L, 9.99, "1965-08-01", "HERBERT"));
+
+        assertThat(index.candidates(new BookQuery())).isNull();
+    }
+
+    private static BookQuery byIsbn(long isbn) {
+        BookQuery query = new BookQuery();
+        query.setIsbn(isbn);
+        return query;
+    }
+
+    private static BookQuery byPrice(Double min, Double max) {
+        BookQuery query = new BookQuery();
+        query.setMinPrice(min);
+        query.setMaxPrice(max);
+        return query;
+    }
+
+    private static BookQuery byPublished(String from, String to) {
+        BookQuery query = new BookQuery();
+        query.setPublishedFrom(from == null ? null : LocalDate.parse(from));
+        query.setPublishedTo(to == null ? null : LocalDate.parse(to));
+        return query;
+    }
+
+    private static BookQuery byAuthor(String code) {
+        BookQuery query = new BookQuery();
+        query.setAuthor(code);
+        return query;
+    }
+
+    private static Book book(Long id, long isbn, double price, String published, String authorCode) {
+        Author author = new Author();
+        author.setCode(authorCode);
+        return Book.builder()
+                .id(id)
+                .isbn(isbn)
+                .price(price)
+                .publishedDate(Date.valueOf(published))
+                .author(author)
+                .build();
+    }
+}
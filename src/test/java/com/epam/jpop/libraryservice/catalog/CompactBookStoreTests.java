@@ -0,0 +1,75 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactBookStoreTests {
+
+    @Test
+    public void materializedBooksEqualTheStoredOnes() {
+        CompactBookStore store = new CompactBookStore();
+        Book dune = book(1L, "Dune", "HERBERT");
+        Book empty = Book.builder().id(2L).build();
+        store.put(dune);
+        store.put(empty);
+
+        assertThat(store.get(1L)).isEqualTo(dune);
+        assertThat(store.get(2L)).isEqualTo(empty);
+        assertThat(store.contains(dune)).isTrue();
+        assertThat(store.contains(book(1L, "Dune Messiah", "HERBERT"))).isFalse();
+    }
+
+    @Test
+    public void storedAuthorIsUnaffectedByChangesToTheCallersOrTheReadersInstance() {
+        CompactBookStore store = new CompactBookStore();
+        Book dune = book(1L, "Dune", "HERBERT");
+        store.put(dune);
+        store.put(book(2L, "Dune Messiah", "HERBERT"));
+
+        dune.getAuthor().setName("changed by the writer");
+        store.get(1L).getAuthor().setName("changed by a reader");
+
+        assertThat(store.get(1L).getAuthor().getName()).isEqualTo("herbert");
+        assertThat(store.get(2L).getAuthor().getName()).isEqualTo("herbert");
+        assertThat(store.get(1L).getAuthor()).isNotSameAs(store.get(2L).getAuthor());
+        assertThat(store.contains(book(2L, "Dune Messiah", "HERBERT"))).isTrue();
+    }
+
+    @Test
+    public void snapshotIsSortedAndUnaffectedByLaterWrites() {
+        CompactBookStore store = new CompactBookStore();
+        for (long id = 2000; id > 0; id--) {
+            store.put(book(id, "Volume é " + id, "A" + (id % 7)));
+        }
+        List<Book> snapshot = store.snapshot();
+
+        assertThat(store.remove(1L)).isEqualTo(book(1L, "Volume é 1", "A1"));
+        store.put(book(3000L, "Reuses the freed slot", "A0"));
+
+        assertThat(snapshot).hasSize(2000);
+        assertThat(snapshot.get(0)).isEqualTo(book(1L, "Volume é 1", "A1"));
+        assertThat(snapshot.get(1999).getId()).isEqualTo(2000L);
+        assertThat(store.size()).isEqualTo(2000);
+        assertThat(store.get(1L)).isNull();
+    }
+
+    private static Book book(Long id, String title, String authorCode) {
+        Author author = new Author();
+        author.setCode(authorCode);
+        author.setName(authorCode.toLowerCase());
+        return Book.builder()
+                .id(id)
+                .title(title)
+                .author(author)
+                .isbn(9780441000000L + id)
+                .publishedDate(Date.valueOf("1965-08-01"))
+                .price(9.99)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.epam.jpop.libraryservice.catalog;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LongLongMapTests {
+
+    private static final long MISSING = -1;
+
+    @Test
+    public void removeOnlyDropsTheExpectedMapping() {
+        LongLongMap map = new LongLongMap(4);
+        map.put(9780441013593L, 1);
+        map.put(9780441013593L, 2);
+
+        assertThat(map.remove(9780441013593L, 1)).isFalse();
+        assertThat(map.get(9780441013593L, MISSING)).isEqualTo(2);
+        assertThat(map.remove(9780441013593L, 2)).isTrue();
+        assertThat(map.get(9780441013593L, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    public void staysConsistentWithAHashMapUnderRandomPutsAndRemoves() {
+        LongLongMap map = new LongLongMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            // a small key space forces long probe chains, growth and deletions in the middle of them
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                Long value = expected.get(key);
+                assertThat(map.remove(key, value == null ? 0 : value)).isEqualTo(value != null);
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+    }
+}
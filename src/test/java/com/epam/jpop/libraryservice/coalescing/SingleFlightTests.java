@@ -0,0 +1,112 @@
+package com.epam.jpop.libraryservice.coalescing;
+
+import org.junit.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    public void concurrentCallersForTheSameKeyShareOneExecution() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("books");
+        AtomicInteger downstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                downstreamCalls.incrementAndGet();
+                release.await();
+                return "Dune";
+            })));
+        }
+        while (singleFlight.statistics().getCollapsed() < CALLERS - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Dune");
+        }
+        executor.shutdown();
+        assertThat(downstreamCalls.get()).isEqualTo(1);
+        assertThat(singleFlight.statistics().getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.statistics().getInFlight()).isZero();
+    }
+
+    @Test
+    public void completedCallsAreNotRemembered() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("books");
+
+        singleFlight.execute(1L, () -> "Dune");
+        singleFlight.execute(1L, () -> "Dune Messiah");
+
+        assertThat(singleFlight.statistics().getExecutions()).isEqualTo(2);
+        assertThat(singleFlight.statistics().getCollapsed()).isZero();
+    }
+
+    @Test
+    public void failuresArePropagatedUnchanged() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("books");
+
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("book-service unavailable");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("book-service unavailable");
+        assertThat(singleFlight.statistics().getInFlight()).isZero();
+        assertThat(singleFlight.statistics().getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    public void callerCancellingDoesNotFailTheCallersSharingItsCall() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("books");
+        MonoProcessor<String> downstream = MonoProcessor.create();
+        AtomicReference<String> shared = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Disposable first = singleFlight.executeAsync(1L, () -> downstream).subscribe();
+        singleFlight.executeAsync(1L, () -> downstream).subscribe(shared::set, failure::set);
+        first.dispose();
+        downstream.onNext("Dune");
+
+        assertThat(shared).hasValue("Dune");
+        assertThat(failure).hasValue(null);
+        assertThat(singleFlight.statistics().getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.statistics().getCollapsed()).isEqualTo(1);
+        assertThat(singleFlight.statistics().getInFlight()).isZero();
+    }
+
+    @Test
+    public void callIsCancelledOnceEveryCallerHasCancelled() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("books");
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> downstream = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = singleFlight.executeAsync(1L, () -> downstream).subscribe();
+        Disposable second = singleFlight.executeAsync(1L, () -> downstream).subscribe();
+        first.dispose();
+        assertThat(cancelled).isFalse();
+        second.dispose();
+
+        assertThat(cancelled).isTrue();
+        assertThat(singleFlight.statistics().getInFlight()).isZero();
+        assertThat(singleFlight.executeAsync(1L, () -> Mono.just("Dune")).block()).isEqualTo("Dune");
+    }
+}
@@ -0,0 +1,36 @@
+package com.epam.jpop.libraryservice.conditional;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntityTagsTests {
+
+    private final ObjectWriter writer = new ObjectMapper().writer();
+
+    @Test
+    public void entitiesWithTheSameHashCodeAreTaggedApart() {
+        // "Aa" and "BB" share their String hash code, and so do the two books
+        Book first = Book.builder().id(1L).title("Aa").build();
+        Book second = Book.builder().id(1L).title("BB").build();
+
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+        assertThat(EntityTags.of(first, writer)).isNotEqualTo(EntityTags.of(second, writer));
+    }
+
+    @Test
+    public void equalContentIsTaggedAlike() {
+        Book book = Book.builder().id(1L).title("Dune").build();
+
+        assertThat(EntityTags.of(book, writer))
+                .isEqualTo(EntityTags.of(Book.builder().id(1L).title("Dune").build(), writer))
+                .startsWith("W/\"");
+        assertThat(EntityTags.of(Arrays.asList(book), writer))
+                .isEqualTo(EntityTags.of(Arrays.asList(Book.builder().id(1L).title("Dune").build()), writer));
+    }
+}
@@ -0,0 +1,111 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false"
+})
+public class BulkControllerTests {
+
+    private static final StubServer bookService = StubServer.start();
+    private static final StubServer userService = StubServer.start();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService)
+            .service("user-service", userService);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void resetDownstreamServices() {
+        bookService.reset();
+        userService.reset();
+    }
+
+    @Test
+    public void exportedBooksImportBackRecordForRecord() {
+        bookService.respond("GET", "/api/books/", 200, "[{\"id\":1,\"title\":\"Dune\",\"price\":9.99},"
+                + "{\"id\":2,\"title\":\"Emma\",\"price\":5.5}]");
+        bookService.respond("POST", "/api/books/", 201, "{\"id\":7,\"title\":\"Emma\"}");
+
+        ResponseEntity<String> exported = restTemplate.getForEntity("/api/lib/books/export", String.class);
+        String results = importRecords("/api/lib/books/import", "application/x-ndjson", exported.getBody());
+
+        assertThat(exported.getHeaders().getContentType().toString()).isEqualTo("application/x-ndjson");
+        assertThat(exported.getBody().split("\n")).hasSize(2);
+        assertThat(results).isEqualTo("{\"line\":1,\"status\":201,\"id\":7,\"message\":null}\n"
+                + "{\"line\":2,\"status\":201,\"id\":7,\"message\":null}\n");
+        assertThat(bookService.getRequestCount("POST", "/api/books/")).isEqualTo(2);
+        // the records are written concurrently, so either may be the last one
+        assertThat(bookService.getLastRequestBody("POST", "/api/books/")).containsPattern("\"title\":\"(Dune|Emma)\"");
+    }
+
+    @Test
+    public void csvImportAnswersEveryLineAndMalformedOnesWithBadRequest() {
+        userService.respond("POST", "/api/users/", 201, "{\"id\":7,\"name\":\"Ann\"}");
+
+        String results = importRecords("/api/lib/users/import", "text/csv", "id,name,email\n"
+                + ",Ann,ann@example.com\n"
+                + ",Bob,bob@example.com,extra\n"
+                + ",Cid,cid@example.com\n");
+
+        assertThat(results).isEqualTo("{\"line\":2,\"status\":201,\"id\":7,\"message\":null}\n"
+                + "{\"line\":3,\"status\":400,\"id\":null,\"message\":\"Expected at most 3 fields but found 4\"}\n"
+                + "{\"line\":4,\"status\":201,\"id\":7,\"message\":null}\n");
+        assertThat(userService.getRequestCount("POST", "/api/users/")).isEqualTo(2);
+    }
+
+    @Test
+    public void usersAreExportedAsCsvWhileTheListingArrives() {
+        userService.respond("GET", "/api/users/", 200, "[{\"id\":1,\"name\":\"Ann\",\"role\":\"READER\"},"
+                + "{\"id\":2,\"name\":\"Bob, Jr.\",\"role\":\"LIBRARIAN\"}]");
+
+        ResponseEntity<String> exported = restTemplate.getForEntity("/api/lib/users/export?format=csv",
+                String.class);
+
+        assertThat(exported.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exported.getHeaders().getContentType().toString()).isEqualTo("text/csv");
+        assertThat(exported.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(exported.getBody()).isEqualTo("id,name,role,email,phoneNumber\n"
+                + "1,Ann,READER,,\n"
+                + "2,\"Bob, Jr.\",LIBRARIAN,,\n");
+    }
+
+    @Test
+    public void unknownExportFormatIsABadRequest() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/lib/users/export?format=xml",
+                String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Unsupported format, expected ndjson or csv: xml");
+        assertThat(userService.getRequestCount("GET", "/api/users/")).isZero();
+    }
+
+    private String importRecords(String path, String contentType, String upload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return restTemplate.postForObject(path, new HttpEntity<>(upload, headers), String.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        "library.conditional.cache-control.book=max-age=60"
+})
+public class LibraryControllerTests {
+
+    private static final StubServer bookService = StubServer.start();
+    private static final StubServer userService = StubServer.start();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService)
+            .service("user-service", userService);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Before
+    public void resetDownstreamServices() {
+        bookService.reset();
+        userService.reset();
+        bookCache.invalidateAll();
+    }
+
+    @Test
+    public void getBookIsTaggedAndAnsweredWithNotModifiedWhenTheTagMatches() throws Exception {
+        bookService.respond("GET", "/api/books/1", 200, json(book(1L, "Dune")));
+
+        ResponseEntity<Book> first = restTemplate.getForEntity("/api/lib/books/v2/1", Book.class);
+        String tag = first.getHeaders().getETag();
+        ResponseEntity<String> second = restTemplate.exchange("/api/lib/books/v2/1", HttpMethod.GET,
+                new HttpEntity<>(validator(tag)), String.class);
+
+        assertThat(tag).startsWith("W/\"");
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("max-age=60");
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+        assertThat(second.getHeaders().getETag()).isEqualTo(tag);
+        assertThat(bookService.getRequestCount("GET", "/api/books/1")).isEqualTo(1);
+    }
+
+    @Test
+    public void changedListingIsSentAgainUnderANewTag() throws Exception {
+        bookService.respond("GET", "/api/books", 200, json(Arrays.asList(book(1L, "Dune"))));
+        String tag = restTemplate.getForEntity("/api/lib/books/v2", Book[].class).getHeaders().getETag();
+        bookService.respond("GET", "/api/books", 200, json(Arrays.asList(book(1L, "Dune"), book(2L, "Emma"))));
+
+        ResponseEntity<Book[]> response = restTemplate.exchange("/api/lib/books/v2", HttpMethod.GET,
+                new HttpEntity<>(validator(tag)), Book[].class);
+        ResponseEntity<String> revalidated = restTemplate.exchange("/api/lib/books/v2", HttpMethod.GET,
+                new HttpEntity<>(validator(response.getHeaders().getETag())), String.class);
+
+        assertThat(tag).startsWith("W/\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(Book::getTitle).containsExactly("Dune", "Emma");
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(tag);
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidated.getHeaders().getETag()).isEqualTo(response.getHeaders().getETag());
+    }
+
+    @Test
+    public void streamedListingIsByteForByteTheBufferedOne() {
+        // more elements than the streamer copies between two flushes
+        bookService.respond("GET", "/api/books/", 200, listing(250));
+
+        byte[] streamed = restTemplate.getForObject("/api/lib/books/stream", byte[].class);
+        byte[] buffered = restTemplate.getForObject("/api/lib/books", byte[].class);
+
+        assertThat(streamed).isEqualTo(buffered);
+        assertThat(new String(streamed, StandardCharsets.UTF_8)).startsWith("[{\"id\":1,").endsWith("}]");
+    }
+
+    @Test
+    public void pagingParametersArePassedThroughToTheDownstreamServices() {
+        bookService.respond("GET", "/api/books/", 200, listing(2));
+        bookService.respond("GET", "/api/books", 200, listing(2));
+        userService.respond("GET", "/api/users", 200, "[]");
+
+        restTemplate.getForObject("/api/lib/books/stream?page=2&size=50&cursor=abc", byte[].class);
+        assertThat(bookService.getLastRequestQuery("GET", "/api/books/")).isEqualTo("page=2&size=50&cursor=abc");
+        restTemplate.getForObject("/api/lib/books/v2?page=3&cursor=def", Book[].class);
+        assertThat(query(bookService, "/api/books")).containsOnly("page=3", "cursor=def");
+        restTemplate.getForObject("/api/lib/users/v2?size=5", Object[].class);
+        assertThat(query(userService, "/api/users")).containsOnly("size=5");
+    }
+
+    @Test
+    public void listingCutOffUpstreamIsLeftIncomplete() {
+        String listing = listing(250);
+        bookService.respond("GET", "/api/books/", 200, listing);
+        String complete = restTemplate.getForObject("/api/lib/books/stream", String.class);
+        bookService.respond("GET", "/api/books/", 200, listing.substring(0, listing.length() / 2));
+
+        String relayed = restTemplate.getForObject("/api/lib/books/stream", String.class);
+
+        // the response is already committed, so the error document can only follow what was relayed
+        int error = relayed.indexOf("{\"timestamp\"");
+        String partial = error < 0 ? relayed : relayed.substring(0, error);
+        assertThat(partial).isNotEmpty().isNotEqualTo(complete);
+        assertThat(complete).startsWith(partial);
+    }
+
+    @Test
+    public void searchWithoutAFreshCatalogIsUnavailable() {
+        bookService.respond("GET", "/api/books", 200, listing(2));
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/lib/books/search?isbn=9780000000001",
+                String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).contains("Search unavailable");
+        assertThat(bookService.getRequestCount("GET", "/api/books")).isZero();
+    }
+
+    private static List<String> query(StubServer service, String path) {
+        return Arrays.asList(service.getLastRequestQuery("GET", path).split("&"));
+    }
+
+    private static String listing(int books) {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= books; id++) {
+            json.append(id == 1 ? "" : ",")
+                    .append("{\"id\":").append(id)
+                    .append(",\"title\":\"Title \\u00e9 ").append(id).append('"')
+                    .append(",\"author\":{\"id\":").append(id % 7).append(",\"name\":\"Author\"}")
+                    .append(",\"isbn\":").append(9780000000000L + id)
+                    .append(",\"price\":").append(id).append(".5}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static HttpHeaders validator(String tag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(tag);
+        return headers;
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.epam.jpop.libraryservice.controller;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.domain.BatchResult;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.LoanDetails;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.UserSummary;
+import com.epam.jpop.libraryservice.loan.LoanService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false"
+})
+public class ReactiveLibraryControllerTests {
+
+    private static final StubServer bookService = StubServer.start();
+    private static final StubServer userService = StubServer.start();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService)
+            .service("user-service", userService);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReadThroughCache<Long, Book> bookCache;
+
+    @Autowired
+    private ReadThroughCache<Long, User> userCache;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Before
+    public void resetDownstreamServices() {
+        bookService.reset();
+        userService.reset();
+        bookCache.invalidateAll();
+        userCache.invalidateAll();
+    }
+
+    @Test
+    public void getBooksReturnsDownstreamList() throws Exception {
+        bookService.respond("GET", "/api/books/", 200, json(Arrays.asList(book(1L, "Dune"), book(2L, "Emma"))));
+
+        ResponseEntity<Book[]> response = restTemplate.getForEntity("/api/lib/books/v3", Book[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(Book::getTitle).containsExactly("Dune", "Emma");
+    }
+
+    @Test
+    public void getSingleBookIsServedFromCacheOnRepeatedReads() throws Exception {
+        bookService.respond("GET", "/api/books/1", 200, json(book(1L, "Dune")));
+
+        restTemplate.getForEntity("/api/lib/books/v3/1", Book.class);
+        ResponseEntity<Book> response = restTemplate.getForEntity("/api/lib/books/v3/1", Book.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getTitle()).isEqualTo("Dune");
+        assertThat(bookService.getRequestCount("GET", "/api/books/1")).isEqualTo(1);
+    }
+
+    @Test
+    public void addSingleBookForwardsBodyToBookService() throws Exception {
+        bookService.respond("POST", "/api/books/", 200, json(book(3L, "Ulysses")));
+
+        ResponseEntity<Book> response = restTemplate.postForEntity("/api/lib/books/v3", book(null, "Ulysses"), Book.class);
+
+        assertThat(response.getBody().getId()).isEqualTo(3L);
+        assertThat(bookService.getLastRequestBody("POST", "/api/books/")).contains("Ulysses");
+    }
+
+    @Test
+    public void updateSingleBookInvalidatesCachedEntry() throws Exception {
+        bookService.respond("GET", "/api/books/1", 200, json(book(1L, "Dune")));
+        bookService.respond("PUT", "/api/books/1", 200, json(book(1L, "Dune Messiah")));
+        restTemplate.getForEntity("/api/lib/books/v3/1", Book.class);
+
+        restTemplate.exchange("/api/lib/books/v3/1", HttpMethod.PUT, new HttpEntity<>(book(1L, "Dune Messiah")), Book.class);
+
+        assertThat(bookCache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    public void deleteSingleUserInvalidatesCachedEntry() throws Exception {
+        userService.respond("GET", "/api/users/7", 200, json(user(7L, "Ada")));
+        userService.respond("DELETE", "/api/users/7", 200, json(user(7L, "Ada")));
+        restTemplate.getForEntity("/api/lib/users/v3/7", User.class);
+
+        restTemplate.delete("/api/lib/users/v3/7");
+
+        assertThat(userCache.getIfPresent(7L)).isNull();
+        assertThat(userService.getRequestCount("DELETE", "/api/users/7")).isEqualTo(1);
+    }
+
+    @Test
+    public void getSingleUserReturnsDownstreamUser() throws Exception {
+        userService.respond("GET", "/api/users/7", 200, json(user(7L, "Ada")));
+
+        ResponseEntity<User> response = restTemplate.getForEntity("/api/lib/users/v3/7", User.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getName()).isEqualTo("Ada");
+    }
+
+    @Test
+    public void getBooksByIdsFetchesEachDistinctIdOnceAndReportsMissingOnes() throws Exception {
+        bookService.respond("GET", "/api/books/1", 200, json(book(1L, "Dune")));
+        bookService.respond("GET", "/api/books/2", 200, json(book(2L, "Emma")));
+
+        ResponseEntity<BatchResult<Book>> response = restTemplate.exchange("/api/lib/books?ids=1,2,1,9",
+                HttpMethod.GET, null, new ParameterizedTypeReference<BatchResult<Book>>() {
+                });
+
+        assertThat(response.getBody().getResults()).containsOnlyKeys(1L, 2L);
+        assertThat(response.getBody().getErrors().get(9L).getStatus()).isEqualTo(404);
+        assertThat(bookService.getRequestCount("GET", "/api/books/1")).isEqualTo(1);
+    }
+
+    @Test
+    public void batchOverTheIdLimitIsABadRequest() {
+        StringBuilder ids = new StringBuilder("1");
+        for (long id = 2; id <= 501; id++) {
+            ids.append(',').append(id);
+        }
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/lib/books?ids=" + ids, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(bookService.getRequestCount("GET", "/api/books/1")).isZero();
+    }
+
+    @Test
+    public void getUserSummaryCombinesUserLoansAndBooksAndReportsMissingParts() throws Exception {
+        userService.respond("GET", "/api/users/8", 200, json(user(8L, "Ada")));
+        bookService.respond("GET", "/api/books/1", 200, json(book(1L, "Dune")));
+        loanService.checkout(1L, 8L);
+        loanService.checkout(99L, 8L);
+
+        ResponseEntity<UserSummary> response = restTemplate.getForEntity("/api/lib/users/8/summary", UserSummary.class);
+
+        UserSummary summary = response.getBody();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(summary.getUser().getName()).isEqualTo("Ada");
+        assertThat(summary.getLoans()).extracting(details -> details.getLoan().getBookId()).containsExactly(1L, 99L);
+        LoanDetails lent = summary.getLoans().get(0);
+        LoanDetails missing = summary.getLoans().get(1);
+        assertThat(lent.getBook().getTitle()).isEqualTo("Dune");
+        assertThat(missing.getBook()).isNull();
+        assertThat(missing.getError().getStatus()).isEqualTo(404);
+        assertThat(summary.isComplete()).isFalse();
+    }
+
+    @Test
+    public void downstreamErrorStatusIsRelayed() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/lib/books/v3/404", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).build();
+    }
+
+    private static User user(Long id, String name) {
+        return User.builder().id(id).name(name).build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.epam.jpop.libraryservice.http;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        "library.http.max-connections=7",
+        "library.http.max-connections-per-route=3",
+        "library.http.max-idle-time=300ms"
+})
+public class HttpClientConfigTests {
+
+    private static final StubServer bookService = StubServer.start()
+            .respond("GET", "/api/books/1", 200, "{\"id\":1,\"title\":\"Dune\"}");
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService);
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private BookClient bookClient;
+
+    @Test
+    public void poolLimitsAreApplied() {
+        assertThat(connectionManager.getMaxTotal()).isEqualTo(7);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(3);
+    }
+
+    @Test
+    public void restTemplateAndFeignShareThePooledConnections() {
+        connectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        assertThat(connectionManager.getStats(bookServiceRoute()).getAvailable()).isZero();
+
+        bookClient.getBook(1L);
+        PoolStats afterFeign = connectionManager.getStats(bookServiceRoute());
+        restTemplate.getForObject("http://book-service/api/books/1", String.class);
+        PoolStats afterRestTemplate = connectionManager.getStats(bookServiceRoute());
+
+        assertThat(afterFeign.getAvailable()).isEqualTo(1);
+        // the connection Feign left in the pool is the one the RestTemplate call reused
+        assertThat(afterRestTemplate.getAvailable()).isEqualTo(1);
+        assertThat(afterRestTemplate.getLeased()).isZero();
+        assertThat(afterRestTemplate.getMax()).isEqualTo(3);
+    }
+
+    @Test
+    public void idleConnectionsAreEvicted() throws InterruptedException {
+        restTemplate.getForObject("http://book-service/api/books/1", String.class);
+        assertThat(connectionManager.getStats(bookServiceRoute()).getAvailable()).isEqualTo(1);
+
+        for (int i = 0; i < 30 && connectionManager.getStats(bookServiceRoute()).getAvailable() > 0; i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+
+        assertThat(connectionManager.getStats(bookServiceRoute()).getAvailable()).isZero();
+    }
+
+    private static HttpRoute bookServiceRoute() {
+        return new HttpRoute(new HttpHost("localhost", bookService.getPort(), "http"));
+    }
+}
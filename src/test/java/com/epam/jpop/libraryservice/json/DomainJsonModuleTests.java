@@ -0,0 +1,141 @@
+package com.epam.jpop.libraryservice.json;
+
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Author;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.Category;
+import com.epam.jpop.libraryservice.domain.Publisher;
+import com.epam.jpop.libraryservice.domain.Result;
+import com.epam.jpop.libraryservice.domain.User;
+import com.epam.jpop.libraryservice.domain.WriteStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.junit.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DomainJsonModuleTests {
+
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final ObjectMapper domain = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new DomainJsonModule())
+            .build();
+
+    @Test
+    public void writesTheSameJsonAsReflectiveBinding() throws Exception {
+        List<Object> values = Arrays.asList(book(1L, "Dune"), new Book(), user(7L, "Ada"), new Result(3L),
+                new AcceptedResult(4L, "tracking", WriteStatus.QUEUED), Arrays.asList(book(1L, "Dune"), new Book()));
+
+        for (Object value : values) {
+            assertThat(domain.writeValueAsString(value)).isEqualTo(reflective.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    public void leavesNullsOutWhenTheMapperExcludesThem() throws Exception {
+        ObjectMapper nonNull = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .modulesToInstall(new DomainJsonModule())
+                .build();
+
+        assertThat(nonNull.writeValueAsString(user(7L, null))).isEqualTo("{\"id\":7}");
+    }
+
+    @Test
+    public void readsWhatReflectiveBindingWrites() throws Exception {
+        String json = reflective.writeValueAsString(Arrays.asList(book(1L, "Dune"), book(2L, "Emma")));
+
+        TypeReference<List<Book>> books = new TypeReference<List<Book>>() {
+        };
+
+        assertThat(domain.<List<Book>>readValue(json, books)).isEqualTo(reflective.readValue(json, books));
+    }
+
+    @Test
+    public void coercesValuesAndSkipsUnknownPropertiesLikeReflectiveBinding() throws Exception {
+        String json = "{\"id\":\"12\",\"rating\":{\"stars\":[4,5]},\"price\":3,\"author\":null,"
+                + "\"category\":{\"code\":\"SF\",\"shelf\":9}}";
+
+        assertThat(domain.readValue(json, Book.class)).isEqualTo(reflective.readValue(json, Book.class));
+    }
+
+    @Test
+    public void failsOnUnknownPropertiesWhenTheMapperDoes() {
+        ObjectMapper strict = Jackson2ObjectMapperBuilder.json()
+                .failOnUnknownProperties(true)
+                .modulesToInstall(new DomainJsonModule())
+                .build();
+
+        assertThatThrownBy(() -> strict.readValue("{\"id\":7,\"nickname\":\"A\"}", User.class))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    public void codecPoolsItsBuffersAcrossEncodings() throws Exception {
+        JsonCodec codec = new JsonCodec(domain, new JsonBufferPool(1, 1024 * 1024, 16));
+
+        byte[] first = codec.encode(book(1L, "Dune"));
+        byte[] second = codec.encode(Arrays.asList(book(1L, "Dune"), book(2L, "Emma")));
+
+        assertThat(domain.readValue(first, Book.class).getTitle()).isEqualTo("Dune");
+        assertThat(domain.readValue(second, Book[].class)).hasSize(2);
+        assertThat(codec.supports(new TypeReference<List<User>>() {
+        }.getType())).isTrue();
+        assertThat(codec.supports(Object.class)).isFalse();
+    }
+
+    @Test
+    public void codecSendsTheLengthOfSmallEntitiesAndStreamsEverythingElse() throws Exception {
+        JsonCodec codec = new JsonCodec(domain, new JsonBufferPool(1, 512, 16));
+        char[] longTitle = new char[2000];
+        Arrays.fill(longTitle, 'x');
+
+        MockHttpOutputMessage entity = write(codec, book(1L, "Dune"));
+        MockHttpOutputMessage large = write(codec, book(2L, new String(longTitle)));
+        MockHttpOutputMessage listing = write(codec, Arrays.asList(book(1L, "Dune"), book(2L, "Emma")));
+
+        assertThat(entity.getHeaders().getContentLength()).isEqualTo(entity.getBodyAsBytes().length);
+        assertThat(domain.readValue(entity.getBodyAsBytes(), Book.class)).isEqualTo(book(1L, "Dune"));
+        assertThat(large.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(domain.readValue(large.getBodyAsBytes(), Book.class)).isEqualTo(book(2L, new String(longTitle)));
+        assertThat(listing.getHeaders().getContentLength()).isEqualTo(-1);
+        assertThat(domain.readValue(listing.getBodyAsBytes(), Book[].class))
+                .containsExactly(book(1L, "Dune"), book(2L, "Emma"));
+    }
+
+    private static MockHttpOutputMessage write(JsonCodec codec, Object value) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        codec.write(value, message);
+        return message;
+    }
+
+    private static Book book(Long id, String title) {
+        Author author = new Author();
+        author.setCode("HER");
+        author.setName("Frank Herbert");
+        Category category = new Category();
+        category.setCode("SF");
+        Publisher publisher = new Publisher();
+        publisher.setName("Chilton");
+        return Book.builder().id(id).title(title).author(author).category(category).isbn(9780441013593L)
+                .publisher(publisher).publishedDate(Date.valueOf("1965-08-01")).price(9.99).build();
+    }
+
+    private static User user(Long id, String name) {
+        return User.builder().id(id).name(name).build();
+    }
+}
@@ -0,0 +1,205 @@
+package com.epam.jpop.libraryservice.loan;
+
+import com.epam.jpop.libraryservice.domain.Availability;
+import com.epam.jpop.libraryservice.domain.Loan;
+import com.epam.jpop.libraryservice.domain.LoanStatus;
+import com.epam.jpop.libraryservice.domain.Reservation;
+import com.epam.jpop.libraryservice.domain.ReservationStatus;
+import com.epam.jpop.libraryservice.exception.LoanConflictException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LoanServiceTests {
+
+    private static final long BOOK = 1L;
+    private static final int THREADS = 32;
+
+    private InMemoryLoanRepository repository;
+    private LoanService loanService;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryLoanRepository();
+        loanService = new LoanService(repository, new LoanProperties(), Clock.systemUTC());
+    }
+
+    @Test
+    public void concurrentCheckoutsNeverOversellCopies() throws Exception {
+        loanService.setCopies(BOOK, 10);
+        AtomicInteger refused = new AtomicInteger();
+
+        List<Loan> loans = runConcurrently(1000, user -> {
+            try {
+                return loanService.checkout(BOOK, user);
+            } catch (LoanConflictException e) {
+                refused.incrementAndGet();
+                return null;
+            }
+        });
+
+        assertThat(loans).hasSize(10);
+        assertThat(refused.get()).isEqualTo(990);
+        assertThat(repository.countActiveLoans(BOOK)).isEqualTo(10);
+        assertThat(loanService.getAvailability(BOOK).getAvailable()).isZero();
+    }
+
+    @Test
+    public void copiesAreConservedUnderConcurrentCheckoutsAndReturns() throws Exception {
+        loanService.setCopies(BOOK, 5);
+
+        runConcurrently(THREADS, user -> {
+            for (int i = 0; i < 500; i++) {
+                try {
+                    loanService.returnLoan(loanService.checkout(BOOK, user).getId());
+                } catch (LoanConflictException e) {
+                    Thread.yield();
+                }
+            }
+            return null;
+        });
+
+        Availability availability = loanService.getAvailability(BOOK);
+        assertThat(repository.countActiveLoans(BOOK)).isZero();
+        assertThat(availability.getAvailable()).isEqualTo(5);
+    }
+
+    @Test
+    public void returnedCopyIsHeldForTheHeadOfTheQueue() {
+        Loan loan = loanService.checkout(BOOK, 1L);
+        Reservation first = loanService.reserve(BOOK, 2L);
+        loanService.reserve(BOOK, 3L);
+        assertThat(first.getStatus()).isEqualTo(ReservationStatus.WAITING);
+
+        assertThatThrownBy(() -> loanService.renew(loan.getId())).isInstanceOf(LoanConflictException.class);
+        loanService.returnLoan(loan.getId());
+
+        assertThat(repository.findReservation(first.getId()).get().getStatus()).isEqualTo(ReservationStatus.READY);
+        assertThatThrownBy(() -> loanService.checkout(BOOK, 4L)).isInstanceOf(LoanConflictException.class);
+        assertThat(loanService.checkout(BOOK, 2L).getStatus()).isEqualTo(LoanStatus.ACTIVE);
+        assertThat(loanService.getAvailability(BOOK).getWaiting()).isEqualTo(1);
+    }
+
+    @Test
+    public void walkInsNeverOvertakeTheQueueWhileCopiesComeBack() throws Exception {
+        int copies = 4;
+        int rounds = 100;
+        loanService.setCopies(BOOK, copies);
+        List<Loan> loans = new ArrayList<>();
+        for (long user = 1; user <= copies; user++) {
+            loans.add(loanService.checkout(BOOK, user));
+        }
+        for (long user = 1001; user <= 1000 + copies * (rounds + 1); user++) {
+            loanService.reserve(BOOK, user);
+        }
+        AtomicInteger walkIns = new AtomicInteger();
+
+        for (int round = 0; round < rounds; round++) {
+            List<Loan> returning = loans;
+            AtomicInteger returned = new AtomicInteger();
+            runConcurrently(THREADS, user -> {
+                if (user <= copies) {
+                    loanService.returnLoan(returning.get((int) user - 1).getId());
+                    returned.incrementAndGet();
+                    return null;
+                }
+                while (returned.get() < copies) {
+                    try {
+                        loanService.checkout(BOOK, 2000 + user);
+                        walkIns.incrementAndGet();
+                    } catch (LoanConflictException e) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+            loans = new ArrayList<>();
+            for (Reservation reservation : repository.findOpenReservations(BOOK)) {
+                if (reservation.getStatus() == ReservationStatus.READY) {
+                    loans.add(loanService.checkout(BOOK, reservation.getUserId()));
+                }
+            }
+            assertThat(loans).hasSize(copies);
+        }
+
+        assertThat(walkIns).hasValue(0);
+        assertThat(repository.countActiveLoans(BOOK)).isEqualTo(copies);
+        assertThat(loanService.getAvailability(BOOK).getAvailable()).isZero();
+        assertThat(loanService.getAvailability(BOOK).getWaiting()).isEqualTo(copies);
+    }
+
+    @Test
+    public void cancellingAHeldReservationPassesTheCopyOn() {
+        Reservation first = loanService.reserve(BOOK, 2L);
+        Reservation second = loanService.reserve(BOOK, 3L);
+        assertThat(first.getStatus()).isEqualTo(ReservationStatus.READY);
+
+        loanService.cancelReservation(first.getId());
+
+        assertThat(repository.findReservation(second.getId()).get().getStatus())
+                .isEqualTo(ReservationStatus.READY);
+        assertThatThrownBy(() -> loanService.cancelReservation(first.getId()))
+                .isInstanceOf(LoanConflictException.class);
+    }
+
+    @Test
+    public void renewalsAreBoundedAndOnlyOneConcurrentReturnWins() throws Exception {
+        Loan loan = loanService.checkout(BOOK, 1L);
+        loanService.renew(loan.getId());
+        Loan renewed = loanService.renew(loan.getId());
+        assertThat(renewed.getDueAt()).isAfter(loan.getDueAt());
+        assertThatThrownBy(() -> loanService.renew(loan.getId())).isInstanceOf(LoanConflictException.class);
+
+        List<Loan> returns = runConcurrently(THREADS, user -> {
+            try {
+                return loanService.returnLoan(loan.getId());
+            } catch (LoanConflictException e) {
+                return null;
+            }
+        });
+
+        assertThat(returns).hasSize(1);
+        assertThat(loanService.getAvailability(BOOK).getAvailable()).isEqualTo(1);
+    }
+
+    /*Runs the task once per user id on a shared pool, all starting together, and collects non-null results*/
+    private static <T> List<T> runConcurrently(int users, UserTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (long user = 1; user <= users; user++) {
+            long userId = user;
+            futures.add(executor.submit((Callable<T>) () -> {
+                start.await();
+                return task.run(userId);
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            T result = future.get(30, TimeUnit.SECONDS);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private interface UserTask<T> {
+        T run(long userId) throws Exception;
+    }
+}
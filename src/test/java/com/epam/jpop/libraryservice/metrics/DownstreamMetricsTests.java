@@ -0,0 +1,89 @@
+package com.epam.jpop.libraryservice.metrics;
+
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DownstreamMetricsTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final DownstreamMetrics metrics = new DownstreamMetrics(registry);
+
+    @Test
+    public void restTemplateInterceptorRecordsEveryCallIntoOneTimer() throws Exception {
+        MeteredRestTemplateInterceptor interceptor = new MeteredRestTemplateInterceptor(metrics);
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("http://book-service/api/books"));
+        ClientHttpRequestExecution ok = (r, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+        interceptor.intercept(request, new byte[0], ok);
+        interceptor.intercept(request, new byte[0], ok);
+
+        Timer timer = timer("book-service", "GET", "200");
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(registry.find(DownstreamMetrics.REQUESTS).timers()).containsExactly(timer);
+    }
+
+    @Test
+    public void feignClientRecordsResponsesAndTimeouts() throws Exception {
+        Request request = Request.create(Request.HttpMethod.PUT, "http://book-service/api/books/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8);
+
+        new MeteredFeignClient((r, options) -> Response.builder().status(503).reason("Service Unavailable")
+                .request(r).headers(Collections.emptyMap()).build(), metrics).execute(request, new Request.Options());
+        MeteredFeignClient timingOut = new MeteredFeignClient((r, options) -> {
+            throw new SocketTimeoutException("Read timed out");
+        }, metrics);
+        assertThatThrownBy(() -> timingOut.execute(request, new Request.Options()))
+                .isInstanceOf(SocketTimeoutException.class);
+
+        assertThat(timer("book-service", "PUT", "503").count()).isEqualTo(1);
+        assertThat(timer("book-service", "PUT", "TIMEOUT").count()).isEqualTo(1);
+        assertThat(count(DownstreamMetrics.ERRORS, "SERVER_ERROR")).isEqualTo(1);
+        assertThat(count(DownstreamMetrics.TIMEOUTS, "TIMEOUT")).isEqualTo(1);
+    }
+
+    @Test
+    public void exchangeFilterRecordsResponsesAndErrors() {
+        MeteredExchangeFilterFunction filter = new MeteredExchangeFilterFunction(metrics);
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://user-service/api/users/1"))
+                .build();
+
+        filter.filter(request, r -> Mono.just(ClientResponse.create(HttpStatus.OK).build())).block();
+        assertThatThrownBy(() -> filter.filter(request, r -> Mono.error(new IllegalStateException("refused"))).block())
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer("user-service", "GET", "200").count()).isEqualTo(1);
+        assertThat(timer("user-service", "GET", "IO_ERROR").count()).isEqualTo(1);
+        assertThat(count(DownstreamMetrics.ERRORS, "IO_ERROR")).isEqualTo(1);
+    }
+
+    private Timer timer(String service, String method, String status) {
+        return registry.get(DownstreamMetrics.REQUESTS)
+                .tags("service", service, "method", method, "status", status)
+                .timer();
+    }
+
+    private double count(String name, String outcome) {
+        return registry.get(name).tag("outcome", outcome).counter().count();
+    }
+}
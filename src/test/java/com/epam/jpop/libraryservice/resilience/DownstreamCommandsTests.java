@@ -0,0 +1,195 @@
+package com.epam.jpop.libraryservice.resilience;
+
+import com.epam.jpop.libraryservice.exception.DownstreamUnavailableException;
+import com.epam.jpop.libraryservice.threads.ThreadMode;
+import com.epam.jpop.libraryservice.threads.ThreadingProperties;
+import com.netflix.config.ConfigurationManager;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DownstreamCommandsTests {
+
+    private final DownstreamCommands commands = new DownstreamCommands(new ThreadingProperties());
+
+    @BeforeClass
+    public static void shortenTimeouts() {
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.command.slowOpen.execution.isolation.thread.timeoutInMilliseconds", 50);
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.command.slowOpen.execution.isolation.thread.interruptOnTimeout", false);
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.command.slowGet.execution.isolation.thread.timeoutInMilliseconds", 50);
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.command.blockedGet.execution.isolation.thread.timeoutInMilliseconds", 5000);
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool.saturated-service.coreSize", 2);
+    }
+
+    @Test
+    public void callsRunInTheBulkheadOfTheirService() {
+        String book = commands.execute(DownstreamCommands.BOOK_SERVICE, "getBook",
+                () -> Thread.currentThread().getName());
+        String user = commands.execute(DownstreamCommands.USER_SERVICE, "getUser",
+                () -> Thread.currentThread().getName());
+
+        assertThat(book).startsWith("hystrix-book-service-");
+        assertThat(user).startsWith("hystrix-user-service-");
+    }
+
+    @Test
+    public void saturatedServiceRejectsCallsWithoutHoldingUpOtherServices() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                callers.submit(() -> commands.execute("saturated-service", "blockedGet", () -> {
+                    started.countDown();
+                    await(release);
+                    return "late";
+                }));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> commands.execute("saturated-service", "blockedGet", () -> "rejected"))
+                    .isInstanceOf(DownstreamUnavailableException.class)
+                    .hasMessageContaining("REJECTED_THREAD_EXECUTION");
+            assertThat(commands.execute(DownstreamCommands.BOOK_SERVICE, "getBook", () -> "served"))
+                    .isEqualTo("served");
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualModeBoundsEachServiceAcrossItsOperations() throws Exception {
+        ThreadingProperties virtual = new ThreadingProperties();
+        virtual.setMode(ThreadMode.VIRTUAL);
+        virtual.setMaxConcurrentCalls(2);
+        DownstreamCommands virtualCommands = new DownstreamCommands(virtual);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            for (String operation : new String[]{"getBookOne", "getBookTwo"}) {
+                callers.submit(() -> virtualCommands.execute(DownstreamCommands.BOOK_SERVICE, operation, () -> {
+                    started.countDown();
+                    await(release);
+                    return "late";
+                }));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> virtualCommands.execute(DownstreamCommands.BOOK_SERVICE, "getBookThree",
+                    () -> "rejected")).isInstanceOf(DownstreamUnavailableException.class)
+                    .hasRootCauseInstanceOf(RejectedExecutionException.class);
+            assertThat(virtualCommands.execute(DownstreamCommands.USER_SERVICE, "getUser", () -> "served"))
+                    .isEqualTo("served");
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+        assertThat(callers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtualCommands.execute(DownstreamCommands.BOOK_SERVICE, "getBookThree", () -> "served"))
+                .isEqualTo("served");
+    }
+
+    @Test
+    public void callOverItsTimeoutIsUnavailable() {
+        assertThatThrownBy(() -> commands.execute(DownstreamCommands.BOOK_SERVICE, "slowGet", () -> {
+            sleep(300);
+            return "late response";
+        })).isInstanceOf(DownstreamUnavailableException.class)
+                .hasMessage("Call to book-service failed (TIMEOUT): slowGet");
+    }
+
+    @Test
+    public void clientErrorsArePassedThroughUnchanged() {
+        HttpClientErrorException notFound = new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        FeignException badRequest = feignError(400, "Bad Request");
+
+        assertThatThrownBy(() -> commands.execute(DownstreamCommands.BOOK_SERVICE, "getBook", () -> {
+            throw notFound;
+        })).isSameAs(notFound);
+        assertThatThrownBy(() -> commands.execute(DownstreamCommands.BOOK_SERVICE, "addBook", () -> {
+            throw badRequest;
+        })).isSameAs(badRequest);
+    }
+
+    @Test
+    public void serverErrorsAreMappedToServiceUnavailable() {
+        FeignException serverError = feignError(500, "Server Error");
+
+        assertThatThrownBy(() -> commands.execute(DownstreamCommands.USER_SERVICE, "getUser", () -> {
+            throw serverError;
+        })).isInstanceOf(DownstreamUnavailableException.class)
+                .hasMessage("Call to user-service failed (COMMAND_EXCEPTION): getUser")
+                .hasRootCauseInstanceOf(FeignException.class);
+        assertThat(DownstreamUnavailableException.class.getAnnotation(ResponseStatus.class).value())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    public void valueProducedAfterTheTimeoutIsDiscarded() throws Exception {
+        CountDownLatch discarded = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> commands.execute(DownstreamCommands.BOOK_SERVICE, "slowOpen", () -> {
+            sleep(300);
+            return "late response";
+        }, value -> discarded.countDown())).isInstanceOf(DownstreamUnavailableException.class);
+
+        assertThat(discarded.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void valueReturnedInTimeIsNotDiscarded() {
+        AtomicInteger discarded = new AtomicInteger();
+
+        String value = commands.execute(DownstreamCommands.BOOK_SERVICE, "fastOpen", () -> "response",
+                ignored -> discarded.incrementAndGet());
+
+        assertThat(value).isEqualTo("response");
+        assertThat(discarded).hasValue(0);
+    }
+
+    private static FeignException feignError(int status, String reason) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://book-service/api/books/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8);
+        return FeignException.errorStatus("BookClient#getBook(Long)", Response.builder()
+                .status(status).reason(reason).request(request).headers(Collections.emptyMap()).build());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.epam.jpop.libraryservice.startup;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@ActiveProfiles("production")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        "hystrix.command.warmUp.execution.isolation.thread.timeoutInMilliseconds=10000",
+        "library.startup.warm-up-connections=2"
+})
+public class ProductionStartupTests {
+
+    private static final StubServer bookService = StubServer.start()
+            .respond("GET", "/api/books", 200, "[{\"id\":1,\"title\":\"Dune\"}]")
+            .respond("GET", "/api/books/1", 200, "{\"id\":1,\"title\":\"Dune\"}")
+            // the warm up waits on the listing for long enough to be seen in progress
+            .withLatency(2000);
+    private static final StubServer userService = StubServer.start()
+            .respond("GET", "/api/users", 200, "[]");
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService)
+            .service("user-service", userService);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    public void instanceIsUnavailableUntilItHasWarmedUp() throws Exception {
+        ResponseEntity<String> starting = restTemplate.getForEntity("/api/", String.class);
+        ResponseEntity<String> warm = starting;
+        for (int i = 0; i < 150 && warm.getStatusCode() != HttpStatus.OK; i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            warm = restTemplate.getForEntity("/api/", String.class);
+        }
+
+        assertThat(starting.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(starting.getBody()).isEqualTo("Starting");
+        assertThat(warm.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bookService.getRequestCount("GET", "/api/books")).isEqualTo(1);
+        assertThat(bookService.getRequestCount("GET", "/api/books/1")).isEqualTo(2);
+        assertThat(userService.getRequestCount("GET", "/api/users")).isEqualTo(1);
+    }
+
+    @Test
+    public void feignClientsAreCreatedOnFirstUse() {
+        assertThat(beanFactory.getBeanDefinition(BookClient.class.getName()).isLazyInit()).isTrue();
+        assertThat(beanFactory.getBeanDefinition(UserClient.class.getName()).isLazyInit()).isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.epam.jpop.libraryservice.startup;
+
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.epam.jpop.libraryservice.threads.ThreadingProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.ApplicationInfoManager;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupWarmerTests {
+
+    @Test
+    public void mappingLoopIsBoundedByAPageAndStoppedByTheTimeout() throws Exception {
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 10000; id++) {
+            books.add(Book.builder().id(id).title("Title " + id).build());
+        }
+        BookClient bookClient = mock(BookClient.class);
+        when(bookClient.getBooks()).thenReturn(books);
+        when(bookClient.getBook(anyLong())).thenReturn(books.get(0));
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUsers()).thenReturn(Collections.emptyList());
+        CountingObjectMapper objectMapper = new CountingObjectMapper();
+        StartupProperties properties = new StartupProperties();
+        properties.setWarmUp(true);
+        properties.setWarmUpConnections(2);
+        properties.setWarmUpIterations(Integer.MAX_VALUE);
+        properties.setWarmUpTimeout(Duration.ofSeconds(2));
+        StartupWarmer warmer = new StartupWarmer(bookClient, userClient,
+                new DownstreamCommands(new ThreadingProperties()), objectMapper,
+                new DefaultListableBeanFactory().getBeanProvider(ApplicationInfoManager.class), properties);
+
+        warmer.warmUp();
+        for (int i = 0; i < 50 && !warmer.isWarm(); i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        // the loop may be between a check of the deadline and the next round trip
+        TimeUnit.MILLISECONDS.sleep(100);
+        int roundTrips = objectMapper.written.get();
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertThat(warmer.isWarm()).isTrue();
+        assertThat(roundTrips).isPositive();
+        assertThat(objectMapper.written.get()).isEqualTo(roundTrips);
+        assertThat(objectMapper.largest.get()).isEqualTo(properties.getWarmUpPageSize());
+    }
+
+    private static class CountingObjectMapper extends ObjectMapper {
+
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger largest = new AtomicInteger();
+
+        @Override
+        public byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+            written.incrementAndGet();
+            largest.accumulateAndGet(((Collection<?>) value).size(), Math::max);
+            return super.writeValueAsBytes(value);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.epam.jpop.libraryservice.cache.CacheProperties;
+import com.epam.jpop.libraryservice.cache.ReadThroughCache;
+import com.epam.jpop.libraryservice.catalog.BookCatalog;
+import com.epam.jpop.libraryservice.catalog.CatalogProperties;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.WriteOperation;
+import com.epam.jpop.libraryservice.domain.WriteProgress;
+import com.epam.jpop.libraryservice.domain.WriteStatus;
+import com.epam.jpop.libraryservice.exception.WriteQueueFullException;
+import com.epam.jpop.libraryservice.feign.BookClient;
+import com.epam.jpop.libraryservice.feign.UserClient;
+import com.epam.jpop.libraryservice.resilience.DownstreamCommands;
+import com.epam.jpop.libraryservice.threads.ThreadingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WriteBehindFlushTests {
+
+    private final BookClient bookClient = mock(BookClient.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final WriteBehindProperties properties = new WriteBehindProperties();
+    private final List<WriteBehindQueue> queues = new ArrayList<>();
+
+    @Before
+    public void configure() throws IOException {
+        properties.setEnabled(true);
+        properties.setFlushInterval(Duration.ofMillis(100));
+        properties.setJournal(Files.createTempDirectory("write-behind").resolve("write-behind.journal").toString());
+    }
+
+    @After
+    public void stopQueues() throws Exception {
+        for (WriteBehindQueue queue : queues) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void unavailableServiceIsRetriedWithAGrowingBackOff() throws Exception {
+        List<Long> attempts = Collections.synchronizedList(new ArrayList<>());
+        when(bookClient.updateBook(any(Book.class), eq(1L))).thenAnswer(invocation -> {
+            attempts.add(System.nanoTime());
+            if (attempts.size() < 3) {
+                throw feignError(503, "Service Unavailable");
+            }
+            return invocation.getArgument(0);
+        });
+        WriteBehindQueue queue = start();
+
+        String trackingId = queue.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune")).getTrackingId();
+        WriteProgress progress = awaitOutcome(queue, trackingId);
+
+        assertThat(progress.getStatus()).isEqualTo(WriteStatus.COMPLETED);
+        assertThat(progress.getAttempts()).isEqualTo(3);
+        assertThat(attempts.get(1) - attempts.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(attempts.get(2) - attempts.get(1)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void writeFailsOnceItsAttemptsAreSpent() throws Exception {
+        when(bookClient.updateBook(any(Book.class), eq(1L))).thenThrow(feignError(503, "Service Unavailable"));
+        WriteBehindQueue queue = start();
+
+        String trackingId = queue.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune")).getTrackingId();
+        WriteProgress progress = awaitOutcome(queue, trackingId);
+
+        assertThat(progress.getStatus()).isEqualTo(WriteStatus.FAILED);
+        assertThat(progress.getAttempts()).isEqualTo(properties.getMaxAttempts());
+        assertThat(progress.getHttpStatus()).isEqualTo(503);
+        verify(bookClient, times(properties.getMaxAttempts())).updateBook(any(Book.class), eq(1L));
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() throws Exception {
+        when(bookClient.updateBook(any(Book.class), eq(1L))).thenThrow(feignError(400, "Bad Request"));
+        WriteBehindQueue queue = start();
+
+        String trackingId = queue.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune")).getTrackingId();
+        WriteProgress progress = awaitOutcome(queue, trackingId);
+
+        assertThat(progress.getStatus()).isEqualTo(WriteStatus.FAILED);
+        assertThat(progress.getAttempts()).isEqualTo(1);
+        assertThat(progress.getHttpStatus()).isEqualTo(400);
+    }
+
+    @Test
+    public void fullQueueTurnsNewWritesAwayButStillCoalescesUpdates() throws Exception {
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setQueueCapacity(2);
+        WriteBehindQueue queue = start();
+
+        queue.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune"));
+        queue.accept(WriteOperation.ADD_BOOK, null, book(null, "Emma"));
+
+        assertThatThrownBy(() -> queue.accept(WriteOperation.UPDATE_BOOK, 2L, book(2L, "Ulysses")))
+                .isInstanceOf(WriteQueueFullException.class);
+        assertThat(queue.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune Messiah")).getTrackingId())
+                .isNotNull();
+        assertThat(queue.size()).isEqualTo(2);
+        assertThat(WriteQueueFullException.class.getAnnotation(ResponseStatus.class).value())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    public void unfinishedWritesAreReplayedAfterARestart() throws Exception {
+        properties.setFlushInterval(Duration.ofHours(1));
+        when(bookClient.addBook(any(Book.class))).thenAnswer(invocation -> {
+            Book added = invocation.getArgument(0);
+            return book(7L, added.getTitle());
+        });
+        WriteBehindQueue before = start();
+        before.accept(WriteOperation.UPDATE_BOOK, 5L, book(5L, "Flushed"));
+        before.flush();
+        String updated = before.accept(WriteOperation.UPDATE_BOOK, 1L, book(1L, "Dune")).getTrackingId();
+        String added = before.accept(WriteOperation.ADD_BOOK, null, book(null, "Emma")).getTrackingId();
+        before.stop();
+
+        WriteBehindQueue after = start();
+
+        assertThat(after.size()).isEqualTo(2);
+        assertThat(after.getProgress(updated).map(WriteProgress::getStatus)).contains(WriteStatus.QUEUED);
+        after.flush();
+        assertThat(after.getProgress(updated).map(WriteProgress::getStatus)).contains(WriteStatus.COMPLETED);
+        assertThat(after.getProgress(added).map(WriteProgress::getId)).contains(7L);
+        verify(bookClient).updateBook(book(1L, "Dune"), 1L);
+        verify(bookClient).addBook(book(null, "Emma"));
+        verify(bookClient, times(1)).updateBook(book(5L, "Flushed"), 5L);
+        assertThat(Files.readAllLines(Paths.get(properties.getJournal()))).isEmpty();
+    }
+
+    private WriteBehindQueue start() throws IOException {
+        DownstreamCommands commands = new DownstreamCommands(new ThreadingProperties());
+        WriteBehindQueue queue = new WriteBehindQueue(bookClient, mock(UserClient.class), commands,
+                new ReadThroughCache<>("books", new CacheProperties()),
+                new ReadThroughCache<>("users", new CacheProperties()),
+                new BookCatalog(bookClient, commands, new CatalogProperties()), objectMapper, properties);
+        queue.start();
+        queues.add(queue);
+        return queue;
+    }
+
+    private static WriteProgress awaitOutcome(WriteBehindQueue queue, String trackingId) throws InterruptedException {
+        WriteProgress progress = queue.getProgress(trackingId).get();
+        for (int i = 0; i < 50 && progress.getStatus() == WriteStatus.QUEUED; i++) {
+            TimeUnit.MILLISECONDS.sleep(100);
+            progress = queue.getProgress(trackingId).get();
+        }
+        return progress;
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).build();
+    }
+
+    private static FeignException feignError(int status, String reason) {
+        Request request = Request.create(Request.HttpMethod.PUT, "http://book-service/api/books/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8);
+        return FeignException.errorStatus("BookClient#updateBook(Book,Long)", Response.builder()
+                .status(status).reason(reason).request(request).headers(Collections.emptyMap()).build());
+    }
+}
@@ -0,0 +1,111 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.epam.jpop.libraryservice.DownstreamServices;
+import com.epam.jpop.libraryservice.StubServer;
+import com.epam.jpop.libraryservice.domain.AcceptedResult;
+import com.epam.jpop.libraryservice.domain.Book;
+import com.epam.jpop.libraryservice.domain.WriteProgress;
+import com.epam.jpop.libraryservice.domain.WriteStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "ribbon.eureka.enabled=false",
+        "library.write-behind.enabled=true",
+        "library.write-behind.flush-interval=1h"
+})
+public class WriteBehindQueueTests {
+
+    private static final StubServer bookService = StubServer.start();
+    private static final Path journal = temporaryJournal();
+
+    @ClassRule
+    public static final DownstreamServices downstreamServices = new DownstreamServices()
+            .service("book-service", bookService)
+            .property("library.write-behind.journal", journal.toString());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @Test
+    public void queuedUpdatesOfABookAreCoalescedIntoTheLastOne() throws Exception {
+        bookService.respond("PUT", "/api/books/1", 200, objectMapper.writeValueAsString(book(1L, "Emma")));
+
+        ResponseEntity<AcceptedResult> first = update(book(1L, "Dune"));
+        ResponseEntity<AcceptedResult> second = update(book(1L, "Emma"));
+        String trackingId = first.getBody().getTrackingId();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(first.getHeaders().getLocation().getPath()).isEqualTo("/api/lib/writes/" + trackingId);
+        assertThat(progress(trackingId).getStatus()).isEqualTo(WriteStatus.QUEUED);
+        assertThat(Files.readAllLines(journal)).hasSize(2);
+        assertThat(writeBehindQueue.size()).isEqualTo(1);
+        assertThat(bookService.getRequestCount("PUT", "/api/books/1")).isZero();
+
+        writeBehindQueue.flush();
+        writeBehindQueue.flush();
+
+        assertThat(bookService.getRequestCount("PUT", "/api/books/1")).isEqualTo(1);
+        assertThat(bookService.getLastRequestBody("PUT", "/api/books/1")).contains("Emma");
+        assertThat(progress(trackingId).getStatus()).isEqualTo(WriteStatus.COMPLETED);
+        assertThat(progress(second.getBody().getTrackingId()).getStatus()).isEqualTo(WriteStatus.COMPLETED);
+        assertThat(Files.readAllLines(journal)).isEmpty();
+    }
+
+    @Test
+    public void unknownTrackingIdIsNotFound() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/lib/writes/unknown", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<AcceptedResult> update(Book book) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Prefer", "respond-async");
+        return restTemplate.exchange("/api/lib/books/" + book.getId(), HttpMethod.PUT, new HttpEntity<>(book, headers),
+                AcceptedResult.class);
+    }
+
+    private WriteProgress progress(String trackingId) {
+        return restTemplate.getForObject("/api/lib/writes/" + trackingId, WriteProgress.class);
+    }
+
+    private static Book book(Long id, String title) {
+        return Book.builder().id(id).title(title).build();
+    }
+
+    private static Path temporaryJournal() {
+        try {
+            return Files.createTempDirectory("write-behind").resolve("write-behind.journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.epam.jpop.libraryservice.writebehind;
+
+import com.epam.jpop.libraryservice.domain.WriteOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteJournalTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Path directory;
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("write-journal");
+        path = directory.resolve("write-behind.journal");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.walk(directory).sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+    }
+
+    @Test
+    public void recoverReturnsTheWritesNotFinishedInTheOrderTheyWereAccepted() throws Exception {
+        WriteJournal journal = new WriteJournal(path, objectMapper, false);
+        assertThat(journal.recover()).isEmpty();
+        journal.append(accepted("a", 1L));
+        journal.append(accepted("b", 2L));
+        journal.append(accepted("c", 1L));
+        journal.append(JournalEntry.finished("a"));
+        journal.close();
+
+        List<JournalEntry> recovered = new WriteJournal(path, objectMapper, false).recover();
+
+        assertThat(recovered).extracting(JournalEntry::getTrackingId).containsExactly("b", "c");
+        assertThat(recovered.get(1).getPayload().get("title").asText()).isEqualTo("c");
+    }
+
+    @Test
+    public void tornLastLineIsSkippedAndDoesNotSpoilLaterAppends() throws Exception {
+        WriteJournal journal = new WriteJournal(path, objectMapper, false);
+        journal.recover();
+        journal.append(accepted("a", 1L));
+        journal.close();
+        Files.write(path, "{\"trackingId\":\"b\",\"opera".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        WriteJournal reopened = new WriteJournal(path, objectMapper, false);
+        assertThat(reopened.recover()).extracting(JournalEntry::getTrackingId).containsExactly("a");
+        reopened.append(accepted("c", 3L));
+        reopened.close();
+
+        assertThat(new WriteJournal(path, objectMapper, false).recover())
+                .extracting(JournalEntry::getTrackingId).containsExactly("a", "c");
+    }
+
+    @Test
+    public void rewriteKeepsOnlyTheGivenEntries() throws Exception {
+        WriteJournal journal = new WriteJournal(path, objectMapper, true);
+        journal.recover();
+        journal.append(accepted("a", 1L));
+        journal.append(accepted("b", 2L));
+
+        journal.rewrite(Collections.singletonList(accepted("b", 2L)));
+        journal.close();
+
+        assertThat(Files.readAllLines(path)).hasSize(1);
+        assertThat(new WriteJournal(path, objectMapper, false).recover())
+                .extracting(JournalEntry::getTrackingId).containsExactly("b");
+    }
+
+    private static JournalEntry accepted(String trackingId, Long id) {
+        return new JournalEntry(trackingId, WriteOperation.UPDATE_BOOK, id,
+                JsonNodeFactory.instance.objectNode().put("id", id).put("title", trackingId), Instant.now(), false);
+    }
+}